@@ -64,17 +64,25 @@ CREATE TABLE factura (
   FOREIGN KEY (id_cliente) REFERENCES cliente (id_cliente)
 );
 
+CREATE INDEX idx_factura_planta_fecha ON factura (id_planta, fecha_inicial, id_factura);
+
 CREATE TABLE facturacion_especial (
   id_facturacion_especial BIGSERIAL PRIMARY KEY,
   excedente DOUBLE PRECISION,
   costo_agregado DOUBLE PRECISION,
   valor_exportacion DOUBLE PRECISION,
+  cantidad_kwh DOUBLE PRECISION,
   id_planta VARCHAR (255),
   mes INT,
   anio INT,
   FOREIGN KEY (id_planta) REFERENCES planta (id_planta)
 );
 
+CREATE INDEX idx_facturacion_especial_planta ON facturacion_especial (id_planta, id_facturacion_especial)
+  INCLUDE (valor_exportacion);
+CREATE INDEX idx_facturacion_especial_planta_periodo ON facturacion_especial (id_planta, anio, mes, id_facturacion_especial)
+  INCLUDE (cantidad_kwh);
+
 CREATE TABLE tarifa_operadores (
   id_tarifa_operador BIGSERIAL PRIMARY KEY,
   tarifa_operador DOUBLE PRECISION,
@@ -103,6 +111,9 @@ CREATE TABLE generacion (
   FOREIGN KEY (id_tarifa_operador) REFERENCES tarifa_operadores(id_tarifa_operador)
 );
 
+CREATE UNIQUE INDEX uq_generacion_planta_periodo ON generacion (id_planta, anio, mes)
+  INCLUDE (generacion_actual, generacion_acumulado, valor_total, ahorro_acumulado, ahorro_codos_acumulado);
+
 CREATE TABLE email (
   id_email BIGSERIAL PRIMARY KEY,
   email VARCHAR(255),
@@ -2,6 +2,7 @@ package com.IntegracionSiesa.Controller;
 
 import com.IntegracionSiesa.Service.PlantaServiceImpl;
 import com.IntegracionSiesa.dto.PlantaDto;
+import com.IntegracionSiesa.dto.PlantaReferenciaDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -79,6 +80,30 @@ public class PlantaController {
         return plantaService.verifyPlantaInFacturacionEspecial(idPlanta);
     }
 
+    /**
+     * Obtiene en una sola llamada los datos de referencia (operador, valor unidad y facturación especial)
+     * de un conjunto de plantas, utilizado por el microservicio generacion por feign client.
+     *
+     * @param nombresPlanta Lista con los nombres de las plantas.
+     * @return Lista de PlantaReferenciaDto de las plantas encontradas.
+     */
+    @PostMapping("/referencias")
+    public List<PlantaReferenciaDto> findPlantasReferenciaByNombres(@RequestBody List<String> nombresPlanta) {
+        return plantaService.findPlantasReferenciaByNombres(nombresPlanta);
+    }
+
+    /**
+     * Obtiene en una sola llamada los datos de referencia de un conjunto de plantas a partir de sus identificadores,
+     * utilizado por el microservicio generacion por feign client.
+     *
+     * @param idsPlanta Lista con los identificadores de las plantas.
+     * @return Lista de PlantaReferenciaDto de las plantas encontradas.
+     */
+    @PostMapping("/referencias/ids")
+    public List<PlantaReferenciaDto> findPlantasReferenciaByIds(@RequestBody List<String> idsPlanta) {
+        return plantaService.findPlantasReferenciaByIds(idsPlanta);
+    }
+
     /**
      * Actualiza los detalles de una lista de plantas.
      *
@@ -2,10 +2,12 @@ package com.IntegracionSiesa.Repository;
 
 import com.IntegracionSiesa.Entities.Planta;
 import com.IntegracionSiesa.dto.PlantaDto;
+import com.IntegracionSiesa.dto.PlantaReferenciaDto;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -68,4 +70,28 @@ public interface PlantaRepository extends JpaRepository<Planta, String> {
             "INNER JOIN TipoCliente t ON c.tipoCliente.idTipoCliente = t.idTipoCliente " +
             "WHERE t.idTipoCliente = 2 AND p.idPlanta = :idPlanta")
     String verifyPlantaInFacturacionEspecial(String idPlanta);
+
+    /**
+     * Obtiene en una sola consulta los datos de referencia de un conjunto de plantas a partir de sus nombres.
+     *
+     * @param nombresPlanta Nombres de las plantas.
+     * @return Lista de objetos PlantaReferenciaDto de las plantas encontradas.
+     */
+    @Query("SELECT new com.IntegracionSiesa.dto.PlantaReferenciaDto(p.idPlanta, p.nombrePlanta, p.idOperador, p.valorUnidad, " +
+            "CASE WHEN t.idTipoCliente = 2 THEN true ELSE false END) FROM Planta p " +
+            "LEFT JOIN p.cliente c LEFT JOIN c.tipoCliente t " +
+            "WHERE p.nombrePlanta IN :nombresPlanta")
+    List<PlantaReferenciaDto> findPlantasReferenciaByNombres(Collection<String> nombresPlanta);
+
+    /**
+     * Obtiene en una sola consulta los datos de referencia de un conjunto de plantas a partir de sus identificadores.
+     *
+     * @param idsPlanta Identificadores de las plantas.
+     * @return Lista de objetos PlantaReferenciaDto de las plantas encontradas.
+     */
+    @Query("SELECT new com.IntegracionSiesa.dto.PlantaReferenciaDto(p.idPlanta, p.nombrePlanta, p.idOperador, p.valorUnidad, " +
+            "CASE WHEN t.idTipoCliente = 2 THEN true ELSE false END) FROM Planta p " +
+            "LEFT JOIN p.cliente c LEFT JOIN c.tipoCliente t " +
+            "WHERE p.idPlanta IN :idsPlanta")
+    List<PlantaReferenciaDto> findPlantasReferenciaByIds(Collection<String> idsPlanta);
 }
@@ -1,6 +1,7 @@
 package com.IntegracionSiesa.Service;
 
 import com.IntegracionSiesa.dto.PlantaDto;
+import com.IntegracionSiesa.dto.PlantaReferenciaDto;
 
 import java.util.List;
 import java.util.Optional;
@@ -65,4 +66,20 @@ public interface IPlantaService {
      * @throws Exception Si ocurre un error durante la verificación.
      */
     String verifyPlantaInFacturacionEspecial(String idPlanta) throws Exception;
+
+    /**
+     * Obtiene los datos de referencia de un conjunto de plantas a partir de sus nombres.
+     *
+     * @param nombresPlanta Nombres de las plantas.
+     * @return Lista de PlantaReferenciaDto de las plantas encontradas.
+     */
+    List<PlantaReferenciaDto> findPlantasReferenciaByNombres(List<String> nombresPlanta);
+
+    /**
+     * Obtiene los datos de referencia de un conjunto de plantas a partir de sus identificadores.
+     *
+     * @param idsPlanta Identificadores de las plantas.
+     * @return Lista de PlantaReferenciaDto de las plantas encontradas.
+     */
+    List<PlantaReferenciaDto> findPlantasReferenciaByIds(List<String> idsPlanta);
 }
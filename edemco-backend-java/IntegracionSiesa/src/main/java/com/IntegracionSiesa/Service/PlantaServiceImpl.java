@@ -1,12 +1,15 @@
 package com.IntegracionSiesa.Service;
 
 import com.IntegracionSiesa.Entities.Planta;
+import com.IntegracionSiesa.client.GeneracionClient;
 import com.IntegracionSiesa.Repository.PlantaRepository;
 import com.IntegracionSiesa.dto.PlantaDto;
+import com.IntegracionSiesa.dto.PlantaReferenciaDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +22,9 @@ public class PlantaServiceImpl implements IPlantaService {
     @Autowired
     private PlantaRepository plantaRepository;
 
+    @Autowired
+    private GeneracionClient generacionClient;
+
     /**
      * Obtiene una lista de todas las plantas registradas.
      *
@@ -73,9 +79,38 @@ public class PlantaServiceImpl implements IPlantaService {
         return plantaRepository.findIdOperadorByIdPlanta(idPlanta);
     }
 
+    /**
+     * Obtiene los datos de referencia de un conjunto de plantas a partir de sus nombres, en una sola consulta.
+     *
+     * @param nombresPlanta Nombres de las plantas.
+     * @return Lista de PlantaReferenciaDto de las plantas encontradas.
+     */
+    @Override
+    public List<PlantaReferenciaDto> findPlantasReferenciaByNombres(List<String> nombresPlanta) {
+        if (nombresPlanta == null || nombresPlanta.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return plantaRepository.findPlantasReferenciaByNombres(new HashSet<>(nombresPlanta));
+    }
+
+    /**
+     * Obtiene los datos de referencia de un conjunto de plantas a partir de sus identificadores, en una sola consulta.
+     *
+     * @param idsPlanta Identificadores de las plantas.
+     * @return Lista de PlantaReferenciaDto de las plantas encontradas.
+     */
+    @Override
+    public List<PlantaReferenciaDto> findPlantasReferenciaByIds(List<String> idsPlanta) {
+        if (idsPlanta == null || idsPlanta.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return plantaRepository.findPlantasReferenciaByIds(new HashSet<>(idsPlanta));
+    }
+
     /**
      * Modifica los detalles de una lista de plantas según los datos proporcionados.
      * Los campos que se pueden modificar son: imagen, asunto, porcentaje de aumento y valor de unidad.
+     * Al terminar se invalida la caché de plantas del microservicio generacion para las plantas modificadas.
      *
      * @param plantaDtoList Lista de objetos PlantaDto con los nuevos datos.
      * @return Lista actualizada de PlantaDto.
@@ -111,9 +146,27 @@ public class PlantaServiceImpl implements IPlantaService {
                         .build());
             }
         }
+        invalidarCacheGeneracion(plantaDtoList1);
         return plantaDtoList1;
     }
 
+    /**
+     * Avisa al microservicio generacion que las plantas cambiaron. Si no responde, la modificación se conserva
+     * y la caché se actualizará cuando venza su tiempo de vida.
+     */
+    private void invalidarCacheGeneracion(List<PlantaDto> plantasModificadas) {
+        if (plantasModificadas.isEmpty()) {
+            return;
+        }
+        List<String> idsPlanta = new ArrayList<>();
+        plantasModificadas.forEach(planta -> idsPlanta.add(planta.getIdPlanta()));
+        try {
+            generacionClient.invalidarCachePlantas(idsPlanta);
+        } catch (Exception e) {
+            System.err.println("No se pudo invalidar la caché de plantas de generacion: " + e.getMessage());
+        }
+    }
+
     /**
      * Verifica si una planta está registrada en facturación especial.
      *
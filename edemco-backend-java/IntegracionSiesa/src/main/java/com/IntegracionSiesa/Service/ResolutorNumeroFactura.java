@@ -0,0 +1,126 @@
+package com.IntegracionSiesa.Service;
+
+import com.IntegracionSiesa.dto.FacturaFADto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Resuelve, durante una facturación, el número de factura que Siesa asigna a cada documento importado.
+ * Parte de la fecha de creación más reciente de InformaFacCen al iniciar la facturación y solo convierte
+ * las facturas creadas después de ella; cada factura nueva se entrega a una única planta.
+ * Las consultas a Siesa se comparten entre las tareas concurrentes de la misma facturación. Cada consulta pide
+ * las facturas creadas desde la fecha más reciente ya leída, incluida, para no perder las creadas en ese mismo
+ * segundo; solo las facturas con esa fecha se recuerdan para no entregarlas dos veces.
+ */
+public class ResolutorNumeroFactura {
+
+    private final Function<LocalDateTime, List<FacturaFADto>> consultaFacturasPosteriores;
+    private final LocalDateTime ultimaFacturaCreada;
+    private LocalDateTime fechaConsultada;
+    private final int intentos;
+    private final long esperaMillis;
+
+    private final Set<String> facturasVistas = new HashSet<>();
+    private final Map<String, Deque<FacturaFADto>> pendientesPorPlanta = new HashMap<>();
+    private long consultasRealizadas = 0;
+
+    /**
+     * @param consultaFacturasPosteriores Consulta de InformaFacCen que devuelve las facturas creadas desde la fecha indicada, incluida.
+     * @param ultimaFacturaCreada Fecha de creación más reciente conocida antes de importar los documentos.
+     * @param intentos Número máximo de consultas por planta mientras Siesa registra la factura.
+     * @param esperaMillis Espera entre consultas, en milisegundos.
+     */
+    public ResolutorNumeroFactura(Function<LocalDateTime, List<FacturaFADto>> consultaFacturasPosteriores,
+                                  LocalDateTime ultimaFacturaCreada, int intentos, long esperaMillis) {
+        this.consultaFacturasPosteriores = consultaFacturasPosteriores;
+        this.ultimaFacturaCreada = ultimaFacturaCreada;
+        this.fechaConsultada = ultimaFacturaCreada;
+        this.intentos = Math.max(1, intentos);
+        this.esperaMillis = esperaMillis;
+    }
+
+    /**
+     * Espera a que Siesa registre una nueva factura para la planta y la reserva para el documento que se acaba de importar.
+     *
+     * @param f284_id Identificador de la planta en Siesa (f284_id).
+     * @return Optional con la factura más antigua aún no asignada de la planta, vacío si no apareció tras los intentos.
+     */
+    public Optional<FacturaFADto> esperarFactura(String f284_id) {
+        for (int intento = 1; intento <= intentos; intento++) {
+            long consultaObservada;
+            synchronized (this) {
+                FacturaFADto factura = tomarPendiente(f284_id);
+                if (factura != null) {
+                    return Optional.of(factura);
+                }
+                consultaObservada = consultasRealizadas;
+            }
+            actualizar(consultaObservada);
+            synchronized (this) {
+                FacturaFADto factura = tomarPendiente(f284_id);
+                if (factura != null) {
+                    return Optional.of(factura);
+                }
+            }
+            if (intento < intentos) {
+                try {
+                    Thread.sleep(esperaMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return Optional.empty();
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Consulta las facturas nuevas de InformaFacCen, a menos que otra tarea ya lo haya hecho
+     * después de que la tarea actual revisara sus pendientes.
+     */
+    private synchronized void actualizar(long consultaObservada) {
+        if (consultasRealizadas != consultaObservada) {
+            return;
+        }
+        List<FacturaFADto> nuevas = consultaFacturasPosteriores.apply(fechaConsultada).stream()
+                .filter(factura -> factura.getF350_fecha_ts_creacion() != null)
+                .sorted(Comparator.comparing(FacturaFADto::getF350_fecha_ts_creacion))
+                .toList();
+        for (FacturaFADto factura : nuevas) {
+            LocalDateTime fechaCreacion = factura.getF350_fecha_ts_creacion();
+            // Las facturas con la fecha inicial ya existían antes de importar los documentos
+            if (ultimaFacturaCreada != null && !fechaCreacion.isAfter(ultimaFacturaCreada)) {
+                continue;
+            }
+            if (fechaConsultada == null || fechaCreacion.isAfter(fechaConsultada)) {
+                // La fecha consultada avanza; solo hace falta recordar las facturas de la nueva fecha
+                fechaConsultada = fechaCreacion;
+                facturasVistas.clear();
+            }
+            if (factura.getF284_id() != null && facturasVistas.add(clave(factura))) {
+                pendientesPorPlanta.computeIfAbsent(factura.getF284_id().trim(), k -> new ArrayDeque<>()).add(factura);
+            }
+        }
+        consultasRealizadas++;
+    }
+
+    private FacturaFADto tomarPendiente(String f284_id) {
+        Deque<FacturaFADto> pendientes = pendientesPorPlanta.get(f284_id);
+        return pendientes == null ? null : pendientes.pollFirst();
+    }
+
+    private String clave(FacturaFADto factura) {
+        return factura.getF350_id_cia() + "|" + factura.getF350_id_co() + "|"
+                + factura.getF350_id_tipo_docto() + "|" + factura.getF350_consec_docto();
+    }
+}
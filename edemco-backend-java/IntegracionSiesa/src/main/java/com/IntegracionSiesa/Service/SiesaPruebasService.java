@@ -89,13 +89,14 @@ public class SiesaPruebasService {
 
         // Configurar la URL y las cabeceras
         String url = baseUrl + "conectoresimportar?idCompania=3306&idInterface=4212&idDocumento=183015&nombreDocumento=VENTAS_SERV_INT";
-        httpHeaders.setContentType(MediaType.APPLICATION_JSON);
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(httpHeaders);
+        headers.setContentType(MediaType.APPLICATION_JSON);
 
         // Crear la entidad HTTP
-        HttpEntity<String> entity = new HttpEntity<>(jsonBody, httpHeaders);
+        HttpEntity<String> entity = new HttpEntity<>(jsonBody, headers);
 
-        // Realizar la solicitud POST
-        RestTemplate restTemplate = new RestTemplate();
+        // Realizar la solicitud POST con el cliente HTTP compartido
         return restTemplate.exchange(url, HttpMethod.POST, entity, String.class);
     }
 
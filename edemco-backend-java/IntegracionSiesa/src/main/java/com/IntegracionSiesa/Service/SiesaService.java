@@ -6,22 +6,36 @@ import com.IntegracionSiesa.Entities.VentasServicios;
 import com.IntegracionSiesa.client.FacturaClient;
 import com.IntegracionSiesa.client.FacturacionEspecialClient;
 import com.IntegracionSiesa.client.GeneracionClient;
+import com.IntegracionSiesa.dto.ClienteCenDto;
+import com.IntegracionSiesa.dto.DocumentoCenDto;
 import com.IntegracionSiesa.dto.FacturaFADto;
 import com.IntegracionSiesa.dto.FacturaRequestDTO;
 import com.IntegracionSiesa.dto.IniciarFacturacionDto;
+import com.IntegracionSiesa.dto.ResultadoFacturaDto;
+import com.IntegracionSiesa.dto.ResumenGeneracionDto;
+import com.IntegracionSiesa.dto.SiesaSnapshot;
+import com.IntegracionSiesa.dto.ValoresFacturacionEspecialDto;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.text.DecimalFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 @Service
@@ -48,30 +62,62 @@ public class SiesaService {
     @Autowired
     private FacturacionEspecialClient facturacionEspecialClient;
 
+    @Autowired
+    private SiesaTablaParser siesaTablaParser;
+
+    @Autowired
+    @Qualifier("siesaExecutor")
+    private Executor siesaExecutor;
+
+    @Autowired
+    @Qualifier("facturacionExecutor")
+    private Executor facturacionExecutor;
+
+    @Value("${siesa.facturacion.intentos-numero-factura:5}")
+    private int intentosNumeroFactura;
+
+    @Value("${siesa.facturacion.espera-numero-factura:2000}")
+    private long esperaNumeroFactura;
+
+    @Value("${siesa.importacion.modo:individual}")
+    private String modoImportacion;
+
+    @Value("${siesa.importacion.tamano-lote:10}")
+    private int tamanoLoteImportacion;
+
+    private static final String MODO_IMPORTACION_LOTE = "lote";
+
+    private static final Pattern ULTIMO_NUMERO = Pattern.compile("(\\d+)\\D*$");
+
     private final String baseUrl = "http://integrador.edemco.co:8089/v3/";
 
-    public ResponseEntity<String> getIntDatosFacturaClienteCen(){
-        String url = baseUrl + "EjecutarConsulta?idCompania=3306&descripcion=IntDatosFacturaClienteCen";
-        HttpEntity<String> entity = new HttpEntity<>(httpHeaders);
-        return restTemplate.exchange(url, HttpMethod.GET,entity,String.class);
+    /**
+     * Ejecuta una consulta de EjecutarConsulta y entrega el cuerpo de la respuesta en streaming al extractor,
+     * sin cargarlo completo en memoria.
+     *
+     * @param descripcion Nombre de la consulta en Siesa.
+     * @param extractor Función que interpreta el cuerpo de la respuesta.
+     * @return El resultado producido por el extractor.
+     */
+    private <T> T ejecutarConsulta(String descripcion, ResponseExtractor<T> extractor) {
+        String url = baseUrl + "EjecutarConsulta?idCompania=3306&descripcion=" + descripcion;
+        return restTemplate.execute(url, HttpMethod.GET, request -> request.getHeaders().addAll(httpHeaders), extractor);
+    }
+
+    public List<ClienteCenDto> consultarClienteCen() {
+        return ejecutarConsulta("IntDatosFacturaClienteCen", response -> siesaTablaParser.parseClienteCen(response.getBody()));
     }
 
-    public ResponseEntity<String> getIntDatosFacturaDocumentoCen(){
-        String url = baseUrl + "EjecutarConsulta?idCompania=3306&descripcion=IntDatosFacturaDocumentoCen";
-        HttpEntity<String> entity = new HttpEntity<>(httpHeaders);
-        return restTemplate.exchange(url, HttpMethod.GET,entity,String.class);
+    public List<DocumentoCenDto> consultarDocumentoCen() {
+        return ejecutarConsulta("IntDatosFacturaDocumentoCen", response -> siesaTablaParser.parseDocumentoCen(response.getBody()));
     }
 
-    public ResponseEntity<String> getIntDatosFacturaMvtoCen(){
-        String url = baseUrl + "EjecutarConsulta?idCompania=3306&descripcion=IntDatosFacturaMvtoCen";
-        HttpEntity<String> entity = new HttpEntity<>(httpHeaders);
-        return restTemplate.exchange(url, HttpMethod.GET,entity,String.class);
+    public List<FacturaFADto> consultarInformaFacCen(LocalDateTime desde) {
+        return ejecutarConsulta("InformaFacCen", response -> siesaTablaParser.parseInformaFacCen(response.getBody(), desde));
     }
 
-    public ResponseEntity<String> getInformacionFACen(){
-        String url = baseUrl + "EjecutarConsulta?idCompania=3306&descripcion=InformaFacCen";
-        HttpEntity<String> entity = new HttpEntity<>(httpHeaders);
-        return restTemplate.exchange(url, HttpMethod.GET,entity,String.class);
+    public LocalDateTime consultarUltimaFechaInformaFacCen() {
+        return ejecutarConsulta("InformaFacCen", response -> siesaTablaParser.parseUltimaFechaInformaFacCen(response.getBody()));
     }
 
     public ResponseEntity<String> postConectoresImportar(VentasServicios ventasServicios) {
@@ -89,77 +135,80 @@ public class SiesaService {
 
         // Configurar la URL y las cabeceras
         String url = baseUrl + "conectoresimportar?idCompania=3306&idInterface=4212&idDocumento=183015&nombreDocumento=VENTAS_SERV_INT";
-        httpHeaders.setContentType(MediaType.APPLICATION_JSON);
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(httpHeaders);
+        headers.setContentType(MediaType.APPLICATION_JSON);
 
         // Crear la entidad HTTP
-        HttpEntity<String> entity = new HttpEntity<>(jsonBody, httpHeaders);
+        HttpEntity<String> entity = new HttpEntity<>(jsonBody, headers);
 
-        // Realizar la solicitud POST
-        RestTemplate restTemplate = new RestTemplate();
+        // Realizar la solicitud POST con el cliente HTTP compartido
         return restTemplate.exchange(url, HttpMethod.POST, entity, String.class);
     }
 
+    /**
+     * Descarga en paralelo, una sola vez por facturación, las consultas de Siesa que necesita el llenado de datos
+     * y las deja indexadas por centro de operación y por NIT. De InformaFacCen solo se conserva la fecha
+     * de la factura más reciente, que sirve como punto de partida para resolver los números de factura nuevos.
+     *
+     * @return SiesaSnapshot con las filas de IntDatosFacturaClienteCen e IntDatosFacturaDocumentoCen.
+     */
+    public SiesaSnapshot cargarSnapshot() {
+        CompletableFuture<List<ClienteCenDto>> clienteCen = CompletableFuture.supplyAsync(this::consultarClienteCen, siesaExecutor);
+        CompletableFuture<List<DocumentoCenDto>> documentoCen = CompletableFuture.supplyAsync(this::consultarDocumentoCen, siesaExecutor);
+        CompletableFuture<LocalDateTime> ultimaFactura = CompletableFuture.supplyAsync(this::consultarUltimaFechaInformaFacCen, siesaExecutor);
+        return SiesaSnapshot.builder()
+                .clientesCen(clienteCen.join())
+                .documentosCen(documentoCen.join())
+                .ultimaFacturaCreada(ultimaFactura.join())
+                .build();
+    }
+
     public ResponseEntity<List<String>> getNitsByCentroOperacion(List<IniciarFacturacionDto> centroOperacionList){
+        return getNitsByCentroOperacion(centroOperacionList, SiesaSnapshot.builder()
+                .clientesCen(consultarClienteCen())
+                .build());
+    }
+
+    public ResponseEntity<List<String>> getNitsByCentroOperacion(List<IniciarFacturacionDto> centroOperacionList, SiesaSnapshot snapshot){
         List<String> nitClienteList = new ArrayList<>();
-        ResponseEntity<String> responseEntityNits = getIntDatosFacturaClienteCen();
-        String responseBodyNits = responseEntityNits.getBody();
-        ObjectMapper objectMapper = new ObjectMapper();
         for (IniciarFacturacionDto centroOperacion : centroOperacionList){
-            try {
-                JsonNode jsonNode = objectMapper.readTree(responseBodyNits);
-                JsonNode detalleNode = jsonNode.get("detalle");
-
-                if (detalleNode != null && !detalleNode.isNull()){
-                    JsonNode tableNode = detalleNode.get("Table");
-                    if (tableNode != null && !tableNode.isNull()){
-                        for (int i = 0; i < tableNode.size(); i++) {
-                            String centroOperacion1 = tableNode.get(i).get("f284_id_co").asText();
-                            if (centroOperacion.getIdPlanta().equals(centroOperacion1)){
-                                // Obtener el valor de "NitCliente" del elemento actual
-                                String nitCliente = tableNode.get(i).get("f200_nit").asText();
-
-                                // Agregar el valor de NitCliente a la lista
-                                nitClienteList.add(nitCliente);
-                            }
-                        }
-                    }
-                }
-            }catch (Exception e){
-                e.printStackTrace();
+            for (ClienteCenDto cliente : snapshot.findClientesByCentroOperacion(centroOperacion.getIdPlanta())) {
+                nitClienteList.add(cliente.getF200_nit());
             }
         }
         return ResponseEntity.ok(nitClienteList);
     }
 
     public ResponseEntity<List<VentasServicios>> llenarDatos2(List<IniciarFacturacionDto> centroOperacionList, LocalDate date) {
-        ObjectMapper objectMapper = new ObjectMapper();
-        List<String> nitList = getNitsByCentroOperacion(centroOperacionList).getBody();
-        int c = 0;
+        return llenarDatos2(centroOperacionList, date, cargarSnapshot());
+    }
+
+    public ResponseEntity<List<VentasServicios>> llenarDatos2(List<IniciarFacturacionDto> centroOperacionList, LocalDate date, SiesaSnapshot snapshot) {
         Integer numeroDocumento = 1;
         List<VentasServicios> ventasServiciosList = new ArrayList<>();
 
         System.out.println("Iniciando método llenarDatos2");
 
+        // Últimos valores de exportación de todas las plantas en una sola llamada
+        Map<String, Double> valoresExportacion = findValoresExportacionByCentrosOperacion(centroOperacionList);
+
         for (IniciarFacturacionDto centroOperacion : centroOperacionList) {
             System.out.println("Procesando centro de operación: " + centroOperacion.getIdPlanta());
 
             List<MovimientoVentaServicio> movimientoVentaServicioList = new ArrayList<>();
             DocumentoVentaServicio documentoVentaServicio = new DocumentoVentaServicio();
 
-            // Verificación: Validar que 'c' no excede el tamaño de 'nitList'
-            if (c >= nitList.size()) {
-                System.out.println("Error: índice 'c' fuera de los límites de 'nitList'. No hay suficientes elementos en la lista para procesar.");
+            // Verificación: el NIT se toma de las filas del propio centro de operación
+            List<ClienteCenDto> clientesCen = snapshot.findClientesByCentroOperacion(centroOperacion.getIdPlanta());
+            if (clientesCen.isEmpty()) {
+                System.out.println("Error: no se encontró un NIT para el centro de operación " + centroOperacion.getIdPlanta() + ".");
                 continue; // Saltar este centro de operación si no hay un NIT correspondiente
             }
 
-            String nitCliente = nitList.get(c);
+            String nitCliente = clientesCen.get(0).getF200_nit();
             System.out.println("NIT Cliente: " + nitCliente);
 
-            // Datos adicionales
-            ResponseEntity<String> responseEntityDatos = getIntDatosFacturaDocumentoCen();
-            String responseBody = responseEntityDatos.getBody();
-            System.out.println("Datos adicionales recibidos: " + responseBody);
-
             String fecha_sin_guiones = date.toString().replace("-", "");
             String fechaInicialObser = date.minusMonths(1).withDayOfMonth(1).toString();
             String fechaFinalObser = YearMonth.from(date.minusMonths(1)).atEndOfMonth().toString();
@@ -169,7 +218,8 @@ public class SiesaService {
 
             System.out.println("Fecha sin guiones: " + fecha_sin_guiones);
 
-            Double generacionActual = findGeneracionActualByIdPlantaAndDate(idPlanta, anio, mes);
+            ResumenGeneracionDto resumenGeneracion = findResumenGeneracionByIdPlantaAndDate(idPlanta, anio, mes);
+            Double generacionActual = resumenGeneracion.getGeneracionActual();
             Double valorUnidad = plantaService.findValorUnidadByIdPlanta(idPlanta);
             String nombrePlanta = centroOperacion.getNombrePlanta();
             String observaciones = String.format("Facturación de Energía Fotovoltaica Planta %s consumo de %.1f kWh con valor por unidad de unidad de $%.1f, correspondiente al periodo %s - %s.",
@@ -177,117 +227,68 @@ public class SiesaService {
 
             System.out.println("Observaciones: " + observaciones);
 
-            try {
-                JsonNode jsonNode = objectMapper.readTree(responseBody);
-                JsonNode detalleNode = jsonNode.get("detalle");
-
-                if (detalleNode != null && !detalleNode.isNull()) {
-                    JsonNode tableNode = detalleNode.get("Table");
-                    if (tableNode != null && !tableNode.isNull()) {
-                        for (int i = 0; i < tableNode.size(); i++) {
-                            String nitCliente1 = tableNode.get(i).get("f200_nit").asText();
-                            if (nitCliente1.equals(nitCliente)) {
-                                System.out.println("Encontrado cliente con NIT: " + nitCliente1);
-                                String numeroSucursal = tableNode.get(i).get("f201_id_sucursal").asText();
-                                String tipeDeCliente = tableNode.get(i).get("f201_id_tipo_cli").asText();
-                                String condicionPago = tableNode.get(i).get("f201_id_cond_pago").asText();
-                                String nit = tableNode.get(i).get("f200_nit").asText();
-
-                                documentoVentaServicio = DocumentoVentaServicio.builder()
-                                        .F350_ID_CO("001")
-                                        .F350_ID_TIPO_DOCTO("FES")
-                                        .F350_CONSEC_DOCTO(numeroDocumento.toString())
-                                        .F350_FECHA(fecha_sin_guiones)
-                                        .F350_ID_TERCERO(nit)
-                                        .F350_NOTAS(observaciones)
-                                        .F311_ID_SUCURSAL_CLI(numeroSucursal)
-                                        .F311_ID_TIPO_CLI(tipeDeCliente)
-                                        .F311_ID_COND_PAGO(condicionPago).build();
-                            }
-                        }
-                    } else {
-                        System.out.println("Table node es null o está vacío.");
-                    }
-                } else {
-                    System.out.println("Detalle node es null o está vacío.");
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
+            Optional<DocumentoCenDto> documentoCen = snapshot.findDocumentoByNit(nitCliente);
+            if (documentoCen.isPresent()) {
+                System.out.println("Encontrado cliente con NIT: " + nitCliente);
+                documentoVentaServicio = DocumentoVentaServicio.builder()
+                        .F350_ID_CO("001")
+                        .F350_ID_TIPO_DOCTO("FES")
+                        .F350_CONSEC_DOCTO(numeroDocumento.toString())
+                        .F350_FECHA(fecha_sin_guiones)
+                        .F350_ID_TERCERO(documentoCen.get().getF200_nit())
+                        .F350_NOTAS(observaciones)
+                        .F311_ID_SUCURSAL_CLI(documentoCen.get().getF201_id_sucursal())
+                        .F311_ID_TIPO_CLI(documentoCen.get().getF201_id_tipo_cli())
+                        .F311_ID_COND_PAGO(documentoCen.get().getF201_id_cond_pago()).build();
             }
 
-            ResponseEntity<String> responseEntityDatosFactura = getIntDatosFacturaClienteCen();
-            String responseBodyFactura = responseEntityDatosFactura.getBody();
-
-            System.out.println("Datos de factura recibidos: " + responseBodyFactura);
-
-            try {
-                JsonNode jsonNode = objectMapper.readTree(responseBodyFactura);
-                JsonNode detalleNode = jsonNode.get("detalle");
-
-                if (detalleNode != null && !detalleNode.isNull()) {
-                    JsonNode tableNode = detalleNode.get("Table");
-                    if (tableNode != null && !tableNode.isNull()) {
-                        for (int i = 0; i < tableNode.size(); i++) {
-                            String centroOperacion1 = tableNode.get(i).get("f284_id_co").asText();
-                            if (centroOperacion1.equals(centroOperacion.getIdPlanta())) {
-                                System.out.println("Procesando datos de factura para centro de operación: " + centroOperacion1);
-
-                                for (Integer j = 1; j <= 2; j++) {
-                                    Double valorBruto;
-
-                                    if (j == 2) {
-                                        valorBruto = (Double) findLastValorExportacionByIdPlanta(idPlanta).getBody();
-                                        System.out.println("Valor Bruto Exportación (j=2) para la planta " + idPlanta + ": " + valorBruto);
-                                    } else {
-                                        valorBruto = findValorTotalByIdPlantaAndDate(idPlanta, anio, mes);
-                                        System.out.println("Valor Total (j=1) para la planta " + idPlanta + ": " + valorBruto);
-                                    }
-
-                                    String codigoUnidadNegocio = tableNode.get(i).get("f284_id_un").asText();
-                                    String codigoCentroCostos = tableNode.get(i).get("f284_id").asText();
-                                    String sucursal = tableNode.get(i).get("f201_id_sucursal").asText();
-
-                                    // Formatear valorBruto solo si es un número válido
-                                    DecimalFormat df = new DecimalFormat("#");
-                                    String valorBrutoString;
-                                    try {
-                                        valorBrutoString = df.format(valorBruto);
-                                    } catch (IllegalArgumentException e) {
-                                        System.out.println("Error al formatear valorBruto: " + valorBruto);
-                                        valorBrutoString = "0"; // Fallback si hay un error
-                                    }
-
-
-                                    movimientoVentaServicioList.add(MovimientoVentaServicio.builder()
-                                            .F350_ID_CO("001")
-                                            .F350_ID_TIPO_DOCTO("FES")
-                                            .F350_CONSEC_DOCTO(numeroDocumento.toString())
-                                            .F320_ROWID(j.toString())
-                                            .F320_ID_SERVICIO("VS909002")
-                                            .F320_ID_CO_MOVTO(centroOperacion.getIdPlanta())
-                                            .F320_ID_UN_MOVTO(codigoUnidadNegocio)
-                                            .F320_ID_CCOSTO_MOVTO(codigoCentroCostos)
-                                            .F320_ID_TERCERO_MOVTO(nitList.get(c))
-                                            .F320_ID_SUCURSAL_CLIENTE(sucursal)
-                                            .F320_CANTIDAD("1")
-                                            .F320_VLR_BRUTO(valorBrutoString) // cambiar a variable valorBrutoString para el funcionamiento real de la aplicacion
-                                            .F320_NOTAS(observaciones).build());
-
-                                    if (clienteService.findEspecialCustomerByIdPlanta(centroOperacion1).isEmpty()) {
-                                        System.out.println("Cliente especial no encontrado, saliendo del bucle.");
-                                        break;
-                                    }
-                                }
-                            }
-                        }
+            for (ClienteCenDto clienteCen : clientesCen) {
+                System.out.println("Procesando datos de factura para centro de operación: " + clienteCen.getF284_id_co());
+
+                for (Integer j = 1; j <= 2; j++) {
+                    Double valorBruto;
+
+                    if (j == 2) {
+                        valorBruto = valoresExportacion.containsKey(idPlanta)
+                                ? valoresExportacion.get(idPlanta)
+                                : (Double) findLastValorExportacionByIdPlanta(idPlanta).getBody();
+                        System.out.println("Valor Bruto Exportación (j=2) para la planta " + idPlanta + ": " + valorBruto);
                     } else {
-                        System.out.println("Table node en datos de factura es null o está vacío.");
+                        valorBruto = resumenGeneracion.getValorTotal();
+                        System.out.println("Valor Total (j=1) para la planta " + idPlanta + ": " + valorBruto);
+                    }
+
+                    // Formatear valorBruto solo si es un número válido
+                    DecimalFormat df = new DecimalFormat("#");
+                    String valorBrutoString;
+                    try {
+                        valorBrutoString = df.format(valorBruto);
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Error al formatear valorBruto: " + valorBruto);
+                        valorBrutoString = "0"; // Fallback si hay un error
+                    }
+
+
+                    movimientoVentaServicioList.add(MovimientoVentaServicio.builder()
+                            .F350_ID_CO("001")
+                            .F350_ID_TIPO_DOCTO("FES")
+                            .F350_CONSEC_DOCTO(numeroDocumento.toString())
+                            .F320_ROWID(j.toString())
+                            .F320_ID_SERVICIO("VS909002")
+                            .F320_ID_CO_MOVTO(centroOperacion.getIdPlanta())
+                            .F320_ID_UN_MOVTO(clienteCen.getF284_id_un())
+                            .F320_ID_CCOSTO_MOVTO(clienteCen.getF284_id())
+                            .F320_ID_TERCERO_MOVTO(nitCliente)
+                            .F320_ID_SUCURSAL_CLIENTE(clienteCen.getF201_id_sucursal())
+                            .F320_CANTIDAD("1")
+                            .F320_VLR_BRUTO(valorBrutoString) // cambiar a variable valorBrutoString para el funcionamiento real de la aplicacion
+                            .F320_NOTAS(observaciones).build());
+
+                    if (clienteService.findEspecialCustomerByIdPlanta(clienteCen.getF284_id_co()).isEmpty()) {
+                        System.out.println("Cliente especial no encontrado, saliendo del bucle.");
+                        break;
                     }
-                } else {
-                    System.out.println("Detalle node en datos de factura es null o está vacío.");
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
             }
 
             VentasServicios ventasServicios = VentasServicios.builder()
@@ -295,7 +296,6 @@ public class SiesaService {
                     .movtoVentasServicios(movimientoVentaServicioList)
                     .build();
             ventasServiciosList.add(ventasServicios);
-            c++;
             numeroDocumento++;
         }
 
@@ -304,84 +304,61 @@ public class SiesaService {
         return ResponseEntity.ok(ventasServiciosList);
     }
 
-    public ResponseEntity<List<FacturaFADto>> getNumberFactura() {
-        System.out.println("Método getNumberFactura() iniciado.");
-        ResponseEntity<String> responseEntityNits = getInformacionFACen();
-        String responseBodyNits = responseEntityNits.getBody();
-        ObjectMapper objectMapper = new ObjectMapper();
-        List<FacturaFADto> facturasInfo = new ArrayList<>();
 
+    /**
+     * Obtiene en una sola llamada la generación actual y el valor total de una planta en un mes; los valores
+     * que no existan o no se puedan consultar se reemplazan por 0.0.
+     *
+     * @param idPlanta Identificador de la planta.
+     * @param anio Año de la generación.
+     * @param mes Mes de la generación.
+     * @return Resumen de la generación con valores no nulos.
+     */
+    public ResumenGeneracionDto findResumenGeneracionByIdPlantaAndDate(String idPlanta, Integer anio, Integer mes) {
+        ResumenGeneracionDto resumen = null;
         try {
-            // Log de respuesta JSON
-            System.out.println("Respuesta JSON: " + responseBodyNits);
-
-            JsonNode rootNode = objectMapper.readTree(responseBodyNits);
-            JsonNode detalleNode = rootNode.get("detalle");
-
-            if (detalleNode == null || detalleNode.isNull()) {
-                throw new Exception("El nodo 'detalle' no está presente o es nulo en el JSON.");
-            }
-
-            JsonNode tableNode = detalleNode.get("Table");
-            if (tableNode == null || !tableNode.isArray()) {
-                throw new Exception("El nodo 'Table' no está presente o no es un array en el JSON.");
-            }
-
-
-            for (JsonNode facturaNode : tableNode) {
-
-                FacturaFADto facturaFADto = new FacturaFADto();
-                facturaFADto.setF350_id_cia(facturaNode.get("f350_id_cia").asInt());
-                facturaFADto.setF350_id_co(facturaNode.get("f350_id_co").asText());
-                facturaFADto.setF350_id_tipo_docto(facturaNode.get("f350_id_tipo_docto").asText());
-                facturaFADto.setF350_consec_docto(facturaNode.get("f350_consec_docto").asInt());
-                facturaFADto.setF284_id(facturaNode.get("f284_id").asText().trim());
-                String fecha = facturaNode.get("f350_fecha_ts_creacion").asText();
-                LocalDateTime fechaHora = LocalDateTime.parse(fecha, DateTimeFormatter.ISO_DATE_TIME);
-                facturaFADto.setF350_fecha_ts_creacion(fechaHora);
-
-                // Log de ID Planta y Número de Factura
-                System.out.println("Factura procesada: ID Planta = " + facturaFADto.getF284_id()
-                        + ", Número de Factura = " + facturaFADto.getF350_id_cia() + facturaFADto.getF350_id_co()
-                        + facturaFADto.getF350_id_tipo_docto() + facturaFADto.getF350_consec_docto());
-
-                facturasInfo.add(facturaFADto);
-            }
+            resumen = generacionClient.findResumenByIdPlantaAndDate(idPlanta, anio, mes);
         } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(List.of());
+            System.out.println("Error al obtener la generación de la planta " + idPlanta + ": " + e.getMessage());
         }
-
-        return ResponseEntity.ok(facturasInfo);
-    }
-
-
-    public Double findGeneracionActualByIdPlantaAndDate(String idPlanta, Integer anio, Integer mes) {
-        try {
-            Double generacionActual = generacionClient.findGeneracionActualByIdPlantaAndDate(idPlanta, anio, mes);
-            if (generacionActual == null) {
-                System.out.println("No se encontraron datos de generación actual para la planta " + idPlanta + " en el año " + anio + " y mes " + mes + ". Asignando valor predeterminado de 0.0.");
-                generacionActual = 0.0; // Asignar un valor predeterminado si no hay datos
-            }
-            return generacionActual;
-        } catch (Exception e) {
-            System.out.println("Error al obtener la generación actual para la planta " + idPlanta + ": " + e.getMessage());
-            return 0.0; // En caso de excepción, devolver un valor predeterminado
+        if (resumen == null) {
+            System.out.println("No se encontraron datos de generación para la planta " + idPlanta + " en el año " + anio + " y mes " + mes + ". Asignando valores predeterminados de 0.0.");
+            resumen = ResumenGeneracionDto.builder().idPlanta(idPlanta).anio(anio).mes(mes).build();
+        }
+        if (resumen.getGeneracionActual() == null) {
+            resumen.setGeneracionActual(0.0);
         }
+        if (resumen.getValorTotal() == null) {
+            resumen.setValorTotal(0.0);
+        }
+        return resumen;
     }
 
-    public Double findValorTotalByIdPlantaAndDate(String idPlanta, Integer anio, Integer mes) {
+    /**
+     * Obtiene en una sola llamada el último valor de exportación de las plantas a facturar. Si la consulta
+     * falla se devuelve un mapa vacío y cada planta se consulta individualmente.
+     *
+     * @param centroOperacionList Plantas a facturar.
+     * @return Mapa del valor de exportación por planta; las plantas sin valor no aparecen.
+     */
+    public Map<String, Double> findValoresExportacionByCentrosOperacion(List<IniciarFacturacionDto> centroOperacionList) {
+        Map<String, Double> valoresExportacion = new HashMap<>();
+        Set<String> idsPlanta = new LinkedHashSet<>();
+        centroOperacionList.forEach(centroOperacion -> idsPlanta.add(centroOperacion.getIdPlanta()));
+        idsPlanta.remove(null);
+        if (idsPlanta.isEmpty()) {
+            return valoresExportacion;
+        }
         try {
-            Double valorTotal = generacionClient.findValorTotalByIdPlantaAndDate(idPlanta, anio, mes);
-            if (valorTotal == null) {
-                System.out.println("No se encontraron datos de valor total para la planta " + idPlanta + " en el año " + anio + " y mes " + mes + ". Asignando valor predeterminado de 0.0.");
-                valorTotal = 0.0; // Asignar un valor predeterminado si no hay datos
+            for (ValoresFacturacionEspecialDto valores : facturacionEspecialClient.findValoresByIdsPlanta(new ArrayList<>(idsPlanta))) {
+                if (valores.getValorExportacion() != null) {
+                    valoresExportacion.put(valores.getIdPlanta(), valores.getValorExportacion());
+                }
             }
-            return valorTotal;
         } catch (Exception e) {
-            System.out.println("Error al obtener el valor total para la planta " + idPlanta + ": " + e.getMessage());
-            return 0.0; // En caso de excepción, devolver un valor predeterminado
+            System.out.println("Error al obtener los valores de exportación de las plantas: " + e.getMessage());
         }
+        return valoresExportacion;
     }
 
     public ResponseEntity<?> findLastValorExportacionByIdPlanta(String idPlanta){
@@ -418,77 +395,268 @@ public class SiesaService {
         return String.format("%05d%s%s%04d", idCompania, idCo, tipoDocumento, consecutivo);
     }
 
+    /**
+     * Envía a Siesa las facturas de una lista de plantas y las registra en el histórico de facturas.
+     * Los documentos se numeran en el orden de la solicitud y luego cada planta se procesa en paralelo
+     * sobre el ejecutor de facturación; las facturas de una misma planta se procesan en orden dentro de una sola tarea.
+     *
+     * @param centroOperacionList Lista de plantas a facturar.
+     * @param date Fecha de la facturación.
+     * @return ResponseEntity con el resultado de cada planta, en el orden de la solicitud.
+     * @throws Exception Si no es posible construir los documentos de la facturación.
+     */
     public ResponseEntity<?> envioFacturas(List<IniciarFacturacionDto> centroOperacionList, LocalDate date) throws Exception {
         try {
             Map<String, String> mapeoPlantas = crearMapeoPlantas();
 
-            List<VentasServicios> ventasServiciosList = llenarDatos2(centroOperacionList, date).getBody();
+            SiesaSnapshot snapshot = cargarSnapshot();
+            List<VentasServicios> ventasServiciosList = llenarDatos2(centroOperacionList, date, snapshot).getBody();
 
+            Map<String, List<VentasServicios>> ventasPorPlanta = new LinkedHashMap<>();
             for (VentasServicios ventasServicios : Objects.requireNonNull(ventasServiciosList)) {
-                String idPlanta = ventasServicios.getMovtoVentasServicios().get(0).getF320_ID_CO_MOVTO().trim();
-                String f284_id = mapeoPlantas.getOrDefault(idPlanta, idPlanta).trim();
-                LocalDate fechaInicialLocal = date.minusMonths(1).withDayOfMonth(1);
-                Integer nitCliente = Integer.valueOf(ventasServicios.getDoctoVentasServicios().get(0).getF350_ID_TERCERO());
-                Long idCliente = clienteService.findIdClienteByNit(nitCliente);
-                LocalDate fechaFinalLocal = YearMonth.from(date.minusMonths(1)).atEndOfMonth();
-                Long diasEntreFechas = ChronoUnit.DAYS.between(fechaInicialLocal, fechaFinalLocal) + 1;
-
-                // Crear el DTO de la factura con el número generado
-                FacturaRequestDTO facturaRequestDTO = FacturaRequestDTO.builder()
-                        .diasFacturados(Math.toIntExact(diasEntreFechas))
-                        .fechaFinal(fechaFinalLocal)
-                        .fechaInicial(fechaInicialLocal)
+                String idPlanta = ventasServicios.getMovtoVentasServicios().get(0).getF320_ID_CO_MOVTO();
+                ventasPorPlanta.computeIfAbsent(idPlanta, k -> new ArrayList<>()).add(ventasServicios);
+            }
+
+            // En modo lote los documentos se importan antes de procesar las plantas
+            Map<VentasServicios, String> rechazadosEnLote = MODO_IMPORTACION_LOTE.equalsIgnoreCase(modoImportacion)
+                    ? importarEnLotes(ventasServiciosList)
+                    : null;
+
+            ResolutorNumeroFactura resolutor = new ResolutorNumeroFactura(this::consultarInformaFacCen,
+                    snapshot.getUltimaFacturaCreada(), intentosNumeroFactura, esperaNumeroFactura);
+            Set<String> plantasProcesadas = new HashSet<>();
+            List<CompletableFuture<List<ResultadoFacturaDto>>> tareas = new ArrayList<>();
+            for (IniciarFacturacionDto centroOperacion : centroOperacionList) {
+                String idPlanta = centroOperacion.getIdPlanta();
+                if (!plantasProcesadas.add(idPlanta)) {
+                    continue; // Las facturas repetidas de la planta ya están en su tarea
+                }
+                List<VentasServicios> ventasPlanta = ventasPorPlanta.get(idPlanta);
+                if (ventasPlanta == null) {
+                    tareas.add(CompletableFuture.completedFuture(List.of(ResultadoFacturaDto.builder()
+                            .idPlanta(idPlanta)
+                            .estado(ResultadoFacturaDto.Estado.OMITIDA)
+                            .motivo("No se encontraron datos del cliente en Siesa para la planta")
+                            .build())));
+                    continue;
+                }
+                tareas.add(CompletableFuture.supplyAsync(() -> ventasPlanta.stream()
+                        .map(ventasServicios -> procesarFacturaPlanta(ventasServicios, date, mapeoPlantas, resolutor, rechazadosEnLote))
+                        .toList(), facturacionExecutor));
+            }
+
+            List<ResultadoFacturaDto> resultados = new ArrayList<>();
+            for (CompletableFuture<List<ResultadoFacturaDto>> tarea : tareas) {
+                resultados.addAll(tarea.join());
+            }
+            return ResponseEntity.ok(resultados);
+        } catch (Exception e) {
+            System.out.println(e.getMessage() +"  "+e);
+            throw new Exception("Error en envioFacturas: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Importa en Siesa el documento de una planta, obtiene el número de factura asignado y lo registra
+     * en el histórico de facturas. Los errores se reportan en el resultado en lugar de detener la facturación.
+     *
+     * @param ventasServicios Documento y movimientos de la planta.
+     * @param date Fecha de la facturación.
+     * @param mapeoPlantas Mapeo del centro de operación al f284_id de Siesa.
+     * @param resolutor Resolutor de números de factura de esta facturación.
+     * @param rechazadosEnLote Documentos rechazados por Siesa en modo lote, o null si el documento aún debe importarse.
+     * @return ResultadoFacturaDto con el estado de la factura de la planta.
+     */
+    private ResultadoFacturaDto procesarFacturaPlanta(VentasServicios ventasServicios, LocalDate date,
+                                                      Map<String, String> mapeoPlantas, ResolutorNumeroFactura resolutor,
+                                                      Map<VentasServicios, String> rechazadosEnLote) {
+        String idPlanta = ventasServicios.getMovtoVentasServicios().get(0).getF320_ID_CO_MOVTO().trim();
+        try {
+            String f284_id = mapeoPlantas.getOrDefault(idPlanta, idPlanta).trim();
+            LocalDate fechaInicialLocal = date.minusMonths(1).withDayOfMonth(1);
+            Integer nitCliente = Integer.valueOf(ventasServicios.getDoctoVentasServicios().get(0).getF350_ID_TERCERO());
+            Long idCliente = clienteService.findIdClienteByNit(nitCliente);
+            LocalDate fechaFinalLocal = YearMonth.from(date.minusMonths(1)).atEndOfMonth();
+            Long diasEntreFechas = ChronoUnit.DAYS.between(fechaInicialLocal, fechaFinalLocal) + 1;
+
+            // Crear el DTO de la factura con el número generado
+            FacturaRequestDTO facturaRequestDTO = FacturaRequestDTO.builder()
+                    .diasFacturados(Math.toIntExact(diasEntreFechas))
+                    .fechaFinal(fechaFinalLocal)
+                    .fechaInicial(fechaInicialLocal)
+                    .idPlanta(idPlanta)
+                    .idCliente(idCliente)
+                    .build();
+
+            String errorImportacion;
+            if (rechazadosEnLote == null) {
+                System.out.println("Enviando datos a postConectoresImportar para la planta " + idPlanta + "...");
+                errorImportacion = importarDocumento(ventasServicios);
+            } else {
+                errorImportacion = rechazadosEnLote.get(ventasServicios);
+            }
+            if (errorImportacion != null) {
+                return resultadoFallido(idPlanta, "Siesa rechazó el documento: " + errorImportacion);
+            }
+
+            // Solo se consideran las facturas creadas en Siesa después de iniciar esta facturación
+            Optional<String> numeroFactura = resolutor.esperarFactura(f284_id)
+                    .map(f -> String.format("%d%s%s%04d",
+                            f.getF350_id_cia(),
+                            f.getF350_id_co(),
+                            f.getF350_id_tipo_docto(),
+                            f.getF350_consec_docto()));
+
+            if (numeroFactura.isEmpty()) {
+                System.out.println("No se encontró un número de factura para la planta: " + idPlanta);
+                return ResultadoFacturaDto.builder()
                         .idPlanta(idPlanta)
-                        .idCliente(idCliente)
+                        .estado(ResultadoFacturaDto.Estado.OMITIDA)
+                        .motivo("No se encontró un número de factura para la planta")
                         .build();
+            }
 
-                System.out.println("Enviando datos a postConectoresImportar...");
-                ResponseEntity<String> responseImportar = postConectoresImportar(ventasServicios);
-                System.out.println("Respuesta de postConectoresImportar: " + responseImportar.getBody());
-                ResponseEntity<List<FacturaFADto>> responseEntityFacturas = getNumberFactura();
-                List<FacturaFADto> facturasFADto = responseEntityFacturas.getBody();
-
+            System.out.println("Número de factura generado: " + numeroFactura.get());
 
-                if (facturasFADto == null || facturasFADto.isEmpty()) {
-                    throw new Exception("No se encontraron números de factura en el JSON proporcionado.");
-                }
+            facturaRequestDTO.setNumeroFactura(numeroFactura.get());
 
-                // Filtrar las facturas para la planta específica
-                List<FacturaFADto> facturasParaPlanta = facturasFADto.stream()
-                        .filter(f -> f.getF284_id() != null && f.getF284_id().trim().equals(f284_id))
-                        .sorted(Comparator.comparing(FacturaFADto::getF350_fecha_ts_creacion))
-                        .toList();
+            System.out.println("Guardando factura en la base de datos...");
+            ResponseEntity<?> responseAddFactura = addFactura(facturaRequestDTO);
+            System.out.println("Respuesta de addFactura: " + responseAddFactura.getStatusCode());
 
-                if (facturasParaPlanta.isEmpty()) {
-                    System.out.println("No se encontró un número de factura para la planta: " + idPlanta);
-                    continue; // Pasar a la siguiente planta
-                }
+            return ResultadoFacturaDto.builder()
+                    .idPlanta(idPlanta)
+                    .estado(ResultadoFacturaDto.Estado.EXITOSA)
+                    .numeroFactura(numeroFactura.get())
+                    .build();
+        } catch (Exception e) {
+            System.out.println("Error al procesar la factura de la planta " + idPlanta + ": " + e.getMessage());
+            return resultadoFallido(idPlanta, e.getMessage());
+        }
+    }
 
-                // Procesar solo la primera factura disponible
-                FacturaFADto facturaSeleccionada = facturasParaPlanta.get(facturasParaPlanta.size()-1);
-                facturasFADto.remove(facturaSeleccionada);
+    /**
+     * Importa en Siesa un documento o un lote de documentos.
+     *
+     * @param ventasServicios Documentos y movimientos a importar.
+     * @return null si Siesa aceptó la importación, o el cuerpo de la respuesta de error.
+     */
+    private String importarDocumento(VentasServicios ventasServicios) {
+        try {
+            ResponseEntity<String> responseImportar = postConectoresImportar(ventasServicios);
+            System.out.println("Respuesta de postConectoresImportar: " + responseImportar.getBody());
+            return responseImportar.getStatusCode().is2xxSuccessful() ? null : String.valueOf(responseImportar.getBody());
+        } catch (HttpStatusCodeException e) {
+            return e.getResponseBodyAsString();
+        } catch (RestClientException e) {
+            return e.getMessage();
+        }
+    }
 
-                // Generar el número de factura
-                String numeroFactura = String.format("%d%s%s%04d",
-                        facturaSeleccionada.getF350_id_cia(),
-                        facturaSeleccionada.getF350_id_co(),
-                        facturaSeleccionada.getF350_id_tipo_docto(),
-                        facturaSeleccionada.getF350_consec_docto());
+    /**
+     * Importa los documentos en lotes de siesa.importacion.tamano-lote documentos por cada POST a conectoresimportar.
+     * Los lotes se envían en paralelo sobre el ejecutor de facturación.
+     *
+     * @param ventasServiciosList Documentos de la facturación, en orden de numeración.
+     * @return Mapa por identidad de los documentos rechazados con el motivo del rechazo.
+     */
+    private Map<VentasServicios, String> importarEnLotes(List<VentasServicios> ventasServiciosList) {
+        int tamano = Math.max(1, tamanoLoteImportacion);
+        List<CompletableFuture<Map<VentasServicios, String>>> lotes = new ArrayList<>();
+        for (int i = 0; i < ventasServiciosList.size(); i += tamano) {
+            List<VentasServicios> lote = ventasServiciosList.subList(i, Math.min(i + tamano, ventasServiciosList.size()));
+            lotes.add(CompletableFuture.supplyAsync(() -> importarLote(lote, true), facturacionExecutor));
+        }
+        Map<VentasServicios, String> rechazados = new IdentityHashMap<>();
+        for (CompletableFuture<Map<VentasServicios, String>> lote : lotes) {
+            rechazados.putAll(lote.join());
+        }
+        return rechazados;
+    }
 
-                System.out.println("Número de factura generado: " + numeroFactura);
+    /**
+     * Importa un lote uniendo sus documentos y movimientos en un solo VentasServicios.
+     * Siesa rechaza el plano completo cuando alguno de sus documentos tiene errores, así que los documentos
+     * señalados en la respuesta se marcan como rechazados y solo los demás se reenvían, una vez, como un lote menor.
+     * Si los errores no se pueden atribuir a documentos concretos, cada documento se envía por separado.
+     *
+     * @param lote Documentos del lote.
+     * @param reintentar Indica si los documentos no señalados pueden reenviarse como lote.
+     * @return Mapa por identidad de los documentos rechazados con el motivo del rechazo.
+     */
+    private Map<VentasServicios, String> importarLote(List<VentasServicios> lote, boolean reintentar) {
+        Map<VentasServicios, String> rechazados = new IdentityHashMap<>();
+        VentasServicios ventasLote = VentasServicios.builder()
+                .doctoVentasServicios(lote.stream().flatMap(v -> v.getDoctoVentasServicios().stream()).toList())
+                .movtoVentasServicios(lote.stream().flatMap(v -> v.getMovtoVentasServicios().stream()).toList())
+                .build();
+
+        System.out.println("Enviando lote de " + lote.size() + " documentos a postConectoresImportar...");
+        String error = importarDocumento(ventasLote);
+        if (error == null) {
+            return rechazados;
+        }
+        if (lote.size() == 1) {
+            rechazados.put(lote.get(0), error);
+            return rechazados;
+        }
 
-                facturaRequestDTO.setNumeroFactura(numeroFactura);
+        Map<String, String> erroresPorConsecutivo = erroresPorDocumento(error);
+        List<VentasServicios> pendientes = new ArrayList<>();
+        for (VentasServicios ventasServicios : lote) {
+            String consecutivo = ventasServicios.getDoctoVentasServicios().get(0).getF350_CONSEC_DOCTO();
+            String errorDocumento = erroresPorConsecutivo.get(consecutivo);
+            if (errorDocumento != null) {
+                rechazados.put(ventasServicios, errorDocumento);
+            } else {
+                pendientes.add(ventasServicios);
+            }
+        }
 
-                System.out.println("Guardando factura en la base de datos...");
-                ResponseEntity<?> responseAddFactura = addFactura(facturaRequestDTO);
-                System.out.println("Respuesta de addFactura: " + responseAddFactura.getStatusCode());
+        if (pendientes.size() == lote.size() || !reintentar) {
+            for (VentasServicios ventasServicios : pendientes) {
+                String errorDocumento = importarDocumento(ventasServicios);
+                if (errorDocumento != null) {
+                    rechazados.put(ventasServicios, errorDocumento);
+                }
             }
+        } else if (!pendientes.isEmpty()) {
+            rechazados.putAll(importarLote(pendientes, false));
+        }
+        return rechazados;
+    }
 
-            return ResponseEntity.ok("Facturas enviadas correctamente");
+    /**
+     * Asocia los errores de una respuesta de conectoresimportar con el consecutivo (F350_CONSEC_DOCTO) del documento
+     * al que pertenecen, tomando el último número de la columna "f_valor" de cada registro de "detalle".
+     *
+     * @param respuestaError Cuerpo de la respuesta de error de Siesa.
+     * @return Mapa de consecutivo a descripción del error; vacío si la respuesta no permite identificar los documentos.
+     */
+    private Map<String, String> erroresPorDocumento(String respuestaError) {
+        Map<String, String> errores = new HashMap<>();
+        try {
+            JsonNode detalleNode = new ObjectMapper().readTree(respuestaError).path("detalle");
+            for (JsonNode errorNode : detalleNode) {
+                Matcher matcher = ULTIMO_NUMERO.matcher(errorNode.path("f_valor").asText());
+                if (matcher.find()) {
+                    String consecutivo = String.valueOf(Long.parseLong(matcher.group(1)));
+                    errores.merge(consecutivo, errorNode.path("f_detalle").asText(), (a, b) -> a + "; " + b);
+                }
+            }
         } catch (Exception e) {
-            System.out.println(e.getMessage() +"  "+e);
-            throw new Exception("Error en envioFacturas: " + e.getMessage(), e);
+            System.out.println("No fue posible interpretar la respuesta de error de Siesa: " + e.getMessage());
         }
+        return errores;
+    }
+
+    private ResultadoFacturaDto resultadoFallido(String idPlanta, String motivo) {
+        return ResultadoFacturaDto.builder()
+                .idPlanta(idPlanta)
+                .estado(ResultadoFacturaDto.Estado.FALLIDA)
+                .motivo(motivo)
+                .build();
     }
 
     private Map<String, String> crearMapeoPlantas() {
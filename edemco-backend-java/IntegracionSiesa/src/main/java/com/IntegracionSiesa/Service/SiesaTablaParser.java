@@ -0,0 +1,184 @@
+package com.IntegracionSiesa.Service;
+
+import com.IntegracionSiesa.dto.ClienteCenDto;
+import com.IntegracionSiesa.dto.DocumentoCenDto;
+import com.IntegracionSiesa.dto.FacturaFADto;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Lee en streaming las respuestas "detalle.Table" de EjecutarConsulta de Siesa y las convierte en filas tipadas.
+ * Solo se conservan las columnas utilizadas; el resto del cuerpo se descarta a medida que se lee,
+ * de modo que nunca se mantiene en memoria el texto completo ni un árbol JSON de la respuesta.
+ */
+@Component
+public class SiesaTablaParser {
+
+    private static final Logger LOGGER = Logger.getLogger(SiesaTablaParser.class);
+
+    private static final Set<String> COLUMNAS_CLIENTE_CEN = Set.of(
+            "f284_id_co", "f200_nit", "f284_id_un", "f284_id", "f201_id_sucursal");
+
+    private static final Set<String> COLUMNAS_DOCUMENTO_CEN = Set.of(
+            "f200_nit", "f201_id_sucursal", "f201_id_tipo_cli", "f201_id_cond_pago");
+
+    private static final Set<String> COLUMNAS_INFORMA_FAC_CEN = Set.of(
+            "f350_id_cia", "f350_id_co", "f350_id_tipo_docto", "f350_consec_docto", "f284_id", "f350_fecha_ts_creacion");
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Interpreta la respuesta de IntDatosFacturaClienteCen.
+     *
+     * @param body Cuerpo de la respuesta de Siesa.
+     * @return Lista de ClienteCenDto en el orden de la tabla.
+     * @throws IOException Si el cuerpo no es un JSON válido.
+     */
+    public List<ClienteCenDto> parseClienteCen(InputStream body) throws IOException {
+        return parseTabla(body, COLUMNAS_CLIENTE_CEN, fila -> new ClienteCenDto(
+                fila.getOrDefault("f284_id_co", ""),
+                fila.getOrDefault("f200_nit", ""),
+                fila.getOrDefault("f284_id_un", ""),
+                fila.getOrDefault("f284_id", ""),
+                fila.getOrDefault("f201_id_sucursal", "")));
+    }
+
+    /**
+     * Interpreta la respuesta de IntDatosFacturaDocumentoCen.
+     *
+     * @param body Cuerpo de la respuesta de Siesa.
+     * @return Lista de DocumentoCenDto en el orden de la tabla.
+     * @throws IOException Si el cuerpo no es un JSON válido.
+     */
+    public List<DocumentoCenDto> parseDocumentoCen(InputStream body) throws IOException {
+        return parseTabla(body, COLUMNAS_DOCUMENTO_CEN, fila -> new DocumentoCenDto(
+                fila.getOrDefault("f200_nit", ""),
+                fila.getOrDefault("f201_id_sucursal", ""),
+                fila.getOrDefault("f201_id_tipo_cli", ""),
+                fila.getOrDefault("f201_id_cond_pago", "")));
+    }
+
+    /**
+     * Interpreta la respuesta de InformaFacCen conservando solo las facturas creadas desde una fecha, incluida.
+     * Las filas anteriores se descartan sin construir su FacturaFADto, igual que las que no tienen planta (f284_id),
+     * fecha de creación o número de documento.
+     *
+     * @param body Cuerpo de la respuesta de Siesa.
+     * @param desde Fecha de creación a partir de la cual se conservan las facturas, o null para conservarlas todas.
+     * @return Lista de FacturaFADto en el orden de la tabla.
+     * @throws IOException Si el cuerpo no es un JSON válido.
+     */
+    public List<FacturaFADto> parseInformaFacCen(InputStream body, LocalDateTime desde) throws IOException {
+        return parseTabla(body, COLUMNAS_INFORMA_FAC_CEN, fila -> {
+            if (fila.get("f284_id") == null || fila.get("f350_fecha_ts_creacion") == null
+                    || fila.get("f350_id_cia") == null || fila.get("f350_consec_docto") == null) {
+                return null;
+            }
+            LocalDateTime fechaCreacion = LocalDateTime.parse(fila.get("f350_fecha_ts_creacion"), DateTimeFormatter.ISO_DATE_TIME);
+            if (desde != null && fechaCreacion.isBefore(desde)) {
+                return null;
+            }
+            return new FacturaFADto(
+                    Integer.parseInt(fila.get("f350_id_cia")),
+                    fila.get("f350_id_co"),
+                    fila.get("f350_id_tipo_docto"),
+                    Integer.valueOf(fila.get("f350_consec_docto")),
+                    fila.get("f284_id").trim(),
+                    fechaCreacion);
+        });
+    }
+
+    /**
+     * Obtiene la fecha de creación más reciente de la respuesta de InformaFacCen, leyendo solo esa columna.
+     *
+     * @param body Cuerpo de la respuesta de Siesa.
+     * @return La fecha de creación más reciente, o null si la tabla está vacía.
+     * @throws IOException Si el cuerpo no es un JSON válido.
+     */
+    public LocalDateTime parseUltimaFechaInformaFacCen(InputStream body) throws IOException {
+        LocalDateTime[] ultimaFecha = new LocalDateTime[1];
+        parseTabla(body, Set.of("f350_fecha_ts_creacion"), fila -> {
+            if (fila.get("f350_fecha_ts_creacion") == null) {
+                return null;
+            }
+            LocalDateTime fechaCreacion = LocalDateTime.parse(fila.get("f350_fecha_ts_creacion"), DateTimeFormatter.ISO_DATE_TIME);
+            if (ultimaFecha[0] == null || fechaCreacion.isAfter(ultimaFecha[0])) {
+                ultimaFecha[0] = fechaCreacion;
+            }
+            return null;
+        });
+        return ultimaFecha[0];
+    }
+
+    /**
+     * Recorre el cuerpo hasta "detalle.Table" y convierte cada fila con las columnas indicadas.
+     *
+     * @param body Cuerpo de la respuesta de Siesa.
+     * @param columnas Columnas que se conservan de cada fila; las que vienen en null se omiten de la fila.
+     * @param mapper Función que construye la fila tipada a partir de las columnas leídas; si devuelve null la fila se descarta.
+     * @return Lista de filas tipadas, vacía si la respuesta no contiene "detalle.Table".
+     * @throws IOException Si el cuerpo no es un JSON válido.
+     */
+    private <T> List<T> parseTabla(InputStream body, Set<String> columnas, Function<Map<String, String>, T> mapper) throws IOException {
+        List<T> filas = new ArrayList<>();
+        if (body == null) {
+            return filas;
+        }
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT
+                    || !avanzarHastaCampo(parser, "detalle") || parser.currentToken() != JsonToken.START_OBJECT
+                    || !avanzarHastaCampo(parser, "Table") || parser.currentToken() != JsonToken.START_ARRAY) {
+                LOGGER.warn("Table node es null o está vacío.");
+                return filas;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Map<String, String> fila = new HashMap<>(columnas.size() * 2);
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String columna = parser.currentName();
+                    JsonToken valor = parser.nextToken();
+                    if (valor.isScalarValue() && valor != JsonToken.VALUE_NULL && columnas.contains(columna)) {
+                        fila.put(columna, parser.getValueAsString());
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                T filaTipada = mapper.apply(fila);
+                if (filaTipada != null) {
+                    filas.add(filaTipada);
+                }
+            }
+        }
+        return filas;
+    }
+
+    /**
+     * Avanza dentro del objeto actual hasta el valor del campo indicado, omitiendo los demás campos.
+     *
+     * @return true si el campo existe; en ese caso el parser queda posicionado sobre su valor.
+     */
+    private boolean avanzarHastaCampo(JsonParser parser, String campo) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String nombre = parser.currentName();
+            parser.nextToken();
+            if (campo.equals(nombre)) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+}
@@ -1,10 +1,15 @@
 package com.IntegracionSiesa.client;
 
+import com.IntegracionSiesa.dto.ValoresFacturacionEspecialDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+
 /**
  * Cliente Feign para interactuar con el microservicio de facturación especial.
  */
@@ -21,4 +26,13 @@ public interface FacturacionEspecialClient {
      */
     @GetMapping("/api/facturacion_especial/valor_exportacion")
     ResponseEntity<?> findLastValorExportacionByIdPlanta(@RequestParam(name = "idPlanta") String idPlanta);
+
+    /**
+     * Obtiene en una sola llamada el último valor de exportación de varias plantas.
+     *
+     * @param idsPlanta Identificadores de las plantas.
+     * @return Valores de facturación especial de cada planta solicitada.
+     */
+    @PostMapping("/api/facturacion_especial/valores")
+    List<ValoresFacturacionEspecialDto> findValoresByIdsPlanta(@RequestBody List<String> idsPlanta);
 }
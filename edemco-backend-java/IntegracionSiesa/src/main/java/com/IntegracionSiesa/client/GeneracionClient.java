@@ -1,7 +1,13 @@
 package com.IntegracionSiesa.client;
 
+import java.util.List;
+
+import com.IntegracionSiesa.dto.ResumenGeneracionDto;
+
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
 /**
@@ -37,4 +43,26 @@ public interface GeneracionClient {
     Double findValorTotalByIdPlantaAndDate(@RequestParam(name = "idPlanta") String idPlanta,
                                            @RequestParam(name = "anio") Integer anio,
                                            @RequestParam(name = "mes") Integer mes);
+
+    /**
+     * Obtiene en una sola llamada la generación actual, el valor total y los acumulados de una planta
+     * en un mes y año determinados.
+     *
+     * @param idPlanta Identificador único de la planta.
+     * @param anio Año para el cual se desea consultar la generación.
+     * @param mes Mes para el cual se desea consultar la generación.
+     * @return Resumen de la generación, o null si la planta no tiene registro en ese mes.
+     */
+    @GetMapping("/api/generacion/resumen")
+    ResumenGeneracionDto findResumenByIdPlantaAndDate(@RequestParam(name = "idPlanta") String idPlanta,
+                                                      @RequestParam(name = "anio") Integer anio,
+                                                      @RequestParam(name = "mes") Integer mes);
+
+    /**
+     * Invalida en el microservicio de generación la caché de las plantas indicadas.
+     *
+     * @param idsPlanta Identificadores de las plantas modificadas.
+     */
+    @PostMapping("/api/generacion/plantas/invalidar_cache")
+    void invalidarCachePlantas(@RequestBody List<String> idsPlanta);
 }
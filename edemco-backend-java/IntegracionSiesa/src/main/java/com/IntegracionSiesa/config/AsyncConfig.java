@@ -0,0 +1,47 @@
+package com.IntegracionSiesa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuración de los ejecutores utilizados para las consultas concurrentes a Siesa.
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Value("${siesa.facturacion.concurrencia:8}")
+    private int concurrenciaFacturacion;
+
+    /**
+     * Bean del ejecutor utilizado para descargar en paralelo las consultas de Siesa de una facturación.
+     *
+     * @return Un ThreadPoolTaskExecutor con un hilo por consulta de Siesa.
+     */
+    @Bean(name = "siesaExecutor")
+    public ThreadPoolTaskExecutor siesaExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setThreadNamePrefix("siesa-consulta-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Bean del ejecutor acotado que procesa en paralelo las facturas de las plantas de una facturación.
+     * El grado de concurrencia se configura con la propiedad siesa.facturacion.concurrencia.
+     *
+     * @return Un ThreadPoolTaskExecutor con tantos hilos como facturas simultáneas permitidas.
+     */
+    @Bean(name = "facturacionExecutor")
+    public ThreadPoolTaskExecutor facturacionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrenciaFacturacion);
+        executor.setMaxPoolSize(concurrenciaFacturacion);
+        executor.setThreadNamePrefix("siesa-factura-");
+        executor.initialize();
+        return executor;
+    }
+}
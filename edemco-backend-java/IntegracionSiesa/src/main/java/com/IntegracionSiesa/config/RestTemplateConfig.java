@@ -1,9 +1,20 @@
 package com.IntegracionSiesa.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 /**
@@ -18,14 +29,64 @@ public class RestTemplateConfig {
     @Value("${api.conniToken}")
     private String conniToken;
 
+    @Value("${siesa.http.connect-timeout:5000}")
+    private long connectTimeout;
+
+    @Value("${siesa.http.read-timeout:120000}")
+    private long readTimeout;
+
+    @Value("${siesa.http.pool-timeout:10000}")
+    private long poolTimeout;
+
+    @Value("${siesa.http.max-conexiones:20}")
+    private int maxConexiones;
+
+    /**
+     * Bean del cliente HTTP Apache utilizado para comunicarse con el integrador de Siesa.
+     * Mantiene un pool de conexiones persistentes (keep-alive), aplica tiempos máximos de conexión y lectura
+     * y solicita las respuestas comprimidas con gzip.
+     *
+     * @return Una instancia de CloseableHttpClient con pool de conexiones.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient siesaHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConexiones)
+                .setMaxConnPerRoute(maxConexiones)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+
+        // La compresión de contenido está activa por defecto: se envía Accept-Encoding gzip/deflate y se descomprime al leer
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeout))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeout))
+                        .build())
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMinutes(1))
+                .build();
+    }
+
     /**
-     * Bean para el cliente HTTP RestTemplate.
+     * Bean para el cliente HTTP RestTemplate utilizado con Siesa.
+     * Se construye con el RestTemplateBuilder de Spring Boot para que Actuator publique la métrica
+     * http.client.requests (latencia y errores) por cada endpoint del integrador.
      *
+     * @param builder Builder configurado por Spring Boot.
+     * @param siesaHttpClient Cliente HTTP con pool de conexiones.
      * @return Una instancia de RestTemplate para realizar peticiones HTTP.
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate siesaRestTemplate(RestTemplateBuilder builder, CloseableHttpClient siesaHttpClient) {
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(siesaHttpClient))
+                .build();
     }
 
     /**
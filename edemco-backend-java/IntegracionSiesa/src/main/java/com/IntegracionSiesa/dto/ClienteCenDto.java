@@ -0,0 +1,19 @@
+package com.IntegracionSiesa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Fila de la consulta IntDatosFacturaClienteCen de Siesa con las columnas usadas en la facturación.
+ */
+@Value
+@AllArgsConstructor
+public class ClienteCenDto {
+
+    String f284_id_co;
+    String f200_nit;
+    String f284_id_un;
+    String f284_id;
+    String f201_id_sucursal;
+
+}
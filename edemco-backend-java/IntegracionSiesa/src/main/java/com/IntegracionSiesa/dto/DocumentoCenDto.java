@@ -0,0 +1,18 @@
+package com.IntegracionSiesa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Fila de la consulta IntDatosFacturaDocumentoCen de Siesa con las columnas usadas en el encabezado del documento.
+ */
+@Value
+@AllArgsConstructor
+public class DocumentoCenDto {
+
+    String f200_nit;
+    String f201_id_sucursal;
+    String f201_id_tipo_cli;
+    String f201_id_cond_pago;
+
+}
@@ -0,0 +1,23 @@
+package com.IntegracionSiesa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Datos de referencia de una planta necesarios para los cálculos de generación:
+ * operador, valor unidad y si pertenece a facturación especial.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlantaReferenciaDto {
+
+    private String idPlanta;
+    private String nombrePlanta;
+    private Long idOperador;
+    private Double valorUnidad;
+    private Boolean facturacionEspecial;
+}
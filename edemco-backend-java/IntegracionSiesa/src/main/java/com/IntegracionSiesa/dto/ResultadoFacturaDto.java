@@ -0,0 +1,31 @@
+package com.IntegracionSiesa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado del envío de la factura de una planta a Siesa dentro de una facturación.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoFacturaDto {
+
+    /**
+     * Estado final de la factura de la planta.
+     */
+    public enum Estado {
+        EXITOSA,
+        OMITIDA,
+        FALLIDA
+    }
+
+    private String idPlanta;
+    private Estado estado;
+    private String numeroFactura;
+    private String motivo;
+
+}
@@ -0,0 +1,25 @@
+package com.IntegracionSiesa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resumen del registro de generación de una planta en un mes, obtenido del microservicio de generación.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResumenGeneracionDto {
+
+    private String idPlanta;
+    private Integer anio;
+    private Integer mes;
+    private Double generacionActual;
+    private Double generacionAcumulado;
+    private Double valorTotal;
+    private Double ahorroAcumulado;
+    private Double ahorroCodosAcumulado;
+}
@@ -0,0 +1,74 @@
+package com.IntegracionSiesa.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Vista inmutable de las consultas de Siesa descargadas una sola vez por facturación.
+ * Las filas quedan indexadas por centro de operación (f284_id_co) y por NIT (f200_nit)
+ * para que cada planta se resuelva con búsquedas directas en lugar de recorrer las tablas.
+ */
+public class SiesaSnapshot {
+
+    private final Map<String, List<ClienteCenDto>> clientesPorCentroOperacion;
+    private final Map<String, DocumentoCenDto> documentosPorNit;
+
+    /**
+     * Fecha de creación (f350_fecha_ts_creacion) de la factura más reciente de InformaFacCen al iniciar la facturación.
+     */
+    @Getter
+    private final LocalDateTime ultimaFacturaCreada;
+
+    @Builder
+    public SiesaSnapshot(List<ClienteCenDto> clientesCen, List<DocumentoCenDto> documentosCen, LocalDateTime ultimaFacturaCreada) {
+        Map<String, List<ClienteCenDto>> porCentroOperacion = new HashMap<>();
+        if (clientesCen != null) {
+            for (ClienteCenDto cliente : clientesCen) {
+                if (cliente.getF284_id_co() != null) {
+                    porCentroOperacion.computeIfAbsent(cliente.getF284_id_co(), k -> new ArrayList<>()).add(cliente);
+                }
+            }
+        }
+        porCentroOperacion.replaceAll((k, v) -> List.copyOf(v));
+        this.clientesPorCentroOperacion = Map.copyOf(porCentroOperacion);
+
+        // Si un NIT aparece varias veces se conserva la última fila, igual que el recorrido secuencial original
+        Map<String, DocumentoCenDto> porNit = new HashMap<>();
+        if (documentosCen != null) {
+            for (DocumentoCenDto documento : documentosCen) {
+                if (documento.getF200_nit() != null) {
+                    porNit.put(documento.getF200_nit(), documento);
+                }
+            }
+        }
+        this.documentosPorNit = Map.copyOf(porNit);
+        this.ultimaFacturaCreada = ultimaFacturaCreada;
+    }
+
+    /**
+     * Obtiene las filas de IntDatosFacturaClienteCen de un centro de operación, en el orden en que las devolvió Siesa.
+     *
+     * @param idCentroOperacion Centro de operación (f284_id_co) de la planta.
+     * @return Lista inmutable de filas, vacía si el centro de operación no existe.
+     */
+    public List<ClienteCenDto> findClientesByCentroOperacion(String idCentroOperacion) {
+        return clientesPorCentroOperacion.getOrDefault(idCentroOperacion, List.of());
+    }
+
+    /**
+     * Obtiene la fila de IntDatosFacturaDocumentoCen asociada a un NIT.
+     *
+     * @param nit NIT (f200_nit) del cliente.
+     * @return Optional con la fila del documento, si existe.
+     */
+    public Optional<DocumentoCenDto> findDocumentoByNit(String nit) {
+        return Optional.ofNullable(documentosPorNit.get(nit));
+    }
+}
@@ -0,0 +1,21 @@
+package com.IntegracionSiesa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Valores de facturación especial de una planta obtenidos del microservicio de facturación especial:
+ * el último valor de exportación y, si se consultó un periodo, la cantidad de kWh exportados.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ValoresFacturacionEspecialDto {
+
+    private String idPlanta;
+    private Double valorExportacion;
+    private Float cantidadkWh;
+}
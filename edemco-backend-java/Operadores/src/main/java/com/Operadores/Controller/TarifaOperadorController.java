@@ -1,9 +1,11 @@
 package com.Operadores.Controller;
 
+import com.Operadores.Dto.RegistroTarifasDto;
 import com.Operadores.Dto.TarifaOperadorDto;
 import com.Operadores.Entities.Operador;
 import com.Operadores.Entities.TarifaOperador;
 import com.Operadores.Exceptions.ResourceNotFoundException;
+import com.Operadores.Exceptions.TarifasNoRegistradasException;
 import com.Operadores.Service.TarifaOperadorService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -36,12 +38,25 @@ public class TarifaOperadorController {
      *
      * @param tarifaOperadorList Lista de objetos TarifaOperadorDto a registrar.
      * @return Lista de objetos TarifaOperadorDto con los datos de las tarifas registradas.
+     * @throws TarifasNoRegistradasException Si hay tarifas duplicadas u operadores inexistentes; se responde 409.
      */
     @PostMapping
-    public List<TarifaOperadorDto> registrarTarifa(@RequestBody List<TarifaOperadorDto> tarifaOperadorList) {
+    public List<TarifaOperadorDto> registrarTarifa(@RequestBody List<TarifaOperadorDto> tarifaOperadorList) throws TarifasNoRegistradasException {
         return tarifaOperadorService.guardarTarifa(tarifaOperadorList);
     }
 
+    /**
+     * Registra en una sola transacción las tarifas de varios operadores e informa las que se descartaron.
+     *
+     * @param tarifaOperadorList Lista de objetos TarifaOperadorDto a registrar.
+     * @return RegistroTarifasDto con las tarifas registradas, las duplicadas por operador, año y mes,
+     *         y los operadores que no existen.
+     */
+    @PostMapping("/lote")
+    public RegistroTarifasDto registrarTarifas(@RequestBody List<TarifaOperadorDto> tarifaOperadorList) {
+        return tarifaOperadorService.guardarTarifas(tarifaOperadorList);
+    }
+
     /**
      * Lista todas las tarifas de operadores.
      *
@@ -85,4 +100,19 @@ public class TarifaOperadorController {
                                                                     @RequestParam(name = "mes") Integer mes) {
         return tarifaOperadorService.findTarifaOperadorByIdOperadorAndMonth(idOperador, mes);
     }
+
+    /**
+     * Busca en una sola llamada la tarifa de varios operadores para un mes dado y, opcionalmente, un año.
+     *
+     * @param idsOperador Lista de IDs de los operadores cuyas tarifas se desean buscar.
+     * @param anio Año de la tarifa; si no se envía se toma la más reciente del mes.
+     * @param mes Mes para el cual se desea buscar la tarifa.
+     * @return Lista de objetos TarifaOperadorDto, una por operador con tarifa en ese periodo.
+     */
+    @PostMapping("/tarifasoperadordto")
+    public List<TarifaOperadorDto> findTarifasOperadorByIdsOperadorAndMonth(@RequestBody List<Long> idsOperador,
+                                                                           @RequestParam(name = "anio", required = false) Integer anio,
+                                                                           @RequestParam(name = "mes") Integer mes) {
+        return tarifaOperadorService.findTarifasOperadorByIdsOperadorAndMonth(idsOperador, anio, mes);
+    }
 }
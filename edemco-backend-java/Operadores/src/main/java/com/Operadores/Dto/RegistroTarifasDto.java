@@ -0,0 +1,22 @@
+package com.Operadores.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado del registro masivo de tarifas: las tarifas guardadas, las que se descartaron por repetir
+ * operador, año y mes, y los operadores enviados que no existen.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistroTarifasDto {
+
+    private List<TarifaOperadorDto> tarifas = new ArrayList<>();
+    private List<TarifaOperadorDto> duplicadas = new ArrayList<>();
+    private List<Long> operadoresNoEncontrados = new ArrayList<>();
+}
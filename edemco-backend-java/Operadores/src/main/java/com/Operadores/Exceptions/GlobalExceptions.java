@@ -1,5 +1,6 @@
 package com.Operadores.Exceptions;
 
+import com.Operadores.Dto.RegistroTarifasDto;
 import org.apache.log4j.Logger;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,6 +26,18 @@ public class GlobalExceptions {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(rnfe.getMessage());
     }
 
+    /**
+     * Maneja excepciones de tipo TarifasNoRegistradasException.
+     *
+     * @param tnre Excepción lanzada cuando un registro de tarifas incluye duplicadas u operadores inexistentes.
+     * @return ResponseEntity con el detalle de las tarifas rechazadas y un estado HTTP 409 (CONFLICT).
+     */
+    @ExceptionHandler({TarifasNoRegistradasException.class})
+    public ResponseEntity<RegistroTarifasDto> tratamientoTarifasNoRegistradasException(TarifasNoRegistradasException tnre) {
+        LOGGER.error("Ocurrió un error: " + tnre.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(tnre.getRegistro());
+    }
+
     /**
      * Maneja excepciones de tipo NullPointerException.
      *
@@ -0,0 +1,29 @@
+package com.Operadores.Exceptions;
+
+import com.Operadores.Dto.RegistroTarifasDto;
+
+/**
+ * Excepción para indicar que un registro de tarifas no se guardó porque incluía tarifas duplicadas
+ * u operadores inexistentes.
+ *
+ * Extiende la clase Exception y conserva el detalle de las tarifas rechazadas.
+ */
+public class TarifasNoRegistradasException extends Exception {
+
+    private final RegistroTarifasDto registro;
+
+    /**
+     * Constructor que inicializa la excepción con un mensaje y el detalle del registro.
+     *
+     * @param mensaje Mensaje que describe el error.
+     * @param registro RegistroTarifasDto con las tarifas duplicadas y los operadores no encontrados.
+     */
+    public TarifasNoRegistradasException(String mensaje, RegistroTarifasDto registro) {
+        super(mensaje);
+        this.registro = registro;
+    }
+
+    public RegistroTarifasDto getRegistro() {
+        return registro;
+    }
+}
@@ -0,0 +1,91 @@
+package com.Operadores.Repository;
+
+import com.Operadores.Entities.TarifaOperador;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repositorio para guardar por lotes los registros de la tabla tarifa_operadores.
+ * La llave id_tarifa_operador es IDENTITY, lo que impide que Hibernate agrupe los INSERT,
+ * por eso las tarifas se envían con JDBC batch dentro de la transacción en curso.
+ */
+@Repository
+public class TarifaOperadorBatchRepository {
+
+    private static final String INSERT_TARIFA = "INSERT INTO tarifa_operadores (tarifa_operador, mes, anio, id_operador) " +
+            "VALUES (?, ?, ?, ?)";
+
+    private static final String UPDATE_TARIFA = "UPDATE tarifa_operadores SET tarifa_operador = ?, mes = ?, anio = ?, " +
+            "id_operador = ? WHERE id_tarifa_operador = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter tarifasInsertadas;
+
+    @Value("${tarifas.insercion.tamano-lote:50}")
+    private int tamanoLote;
+
+    @Autowired
+    public TarifaOperadorBatchRepository(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tarifasInsertadas = Counter.builder("tarifas.insercion.registros")
+                .description("Tarifas de operadores insertadas por lotes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inserta las tarifas agrupadas en lotes JDBC. Los IDs generados no se devuelven; las tarifas insertadas
+     * se pueden volver a leer por operador, año y mes.
+     *
+     * @param tarifas Tarifas nuevas, sin idTarifaOperador.
+     */
+    public void insertAll(List<TarifaOperador> tarifas) {
+        if (tarifas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_TARIFA, tarifas, tamanoLote, (ps, tarifa) -> {
+            ps.setObject(1, tarifa.getTarifaOperador(), Types.DOUBLE);
+            ps.setObject(2, tarifa.getMes(), Types.INTEGER);
+            ps.setObject(3, tarifa.getAnio(), Types.INTEGER);
+            ps.setObject(4, tarifa.getOperador().getIdOperador(), Types.BIGINT);
+        });
+        tarifasInsertadas.increment(tarifas.size());
+    }
+
+    /**
+     * Actualiza las tarifas agrupadas en lotes JDBC.
+     *
+     * @param tarifas Tarifas existentes, con su idTarifaOperador.
+     * @return Tarifas cuyo idTarifaOperador no existe en la tabla y por lo tanto no se actualizaron.
+     */
+    public List<TarifaOperador> updateAll(List<TarifaOperador> tarifas) {
+        List<TarifaOperador> noEncontradas = new ArrayList<>();
+        if (tarifas.isEmpty()) {
+            return noEncontradas;
+        }
+        int[][] filas = jdbcTemplate.batchUpdate(UPDATE_TARIFA, tarifas, tamanoLote, (ps, tarifa) -> {
+            ps.setObject(1, tarifa.getTarifaOperador(), Types.DOUBLE);
+            ps.setObject(2, tarifa.getMes(), Types.INTEGER);
+            ps.setObject(3, tarifa.getAnio(), Types.INTEGER);
+            ps.setObject(4, tarifa.getOperador().getIdOperador(), Types.BIGINT);
+            ps.setObject(5, tarifa.getIdTarifaOperador(), Types.BIGINT);
+        });
+        int indice = 0;
+        for (int[] lote : filas) {
+            for (int filasActualizadas : lote) {
+                if (filasActualizadas == 0) {
+                    noEncontradas.add(tarifas.get(indice));
+                }
+                indice++;
+            }
+        }
+        return noEncontradas;
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -41,4 +42,15 @@ public interface TarifaOperadorRepository extends JpaRepository<TarifaOperador,
             "WHERE t.operador.idOperador = :idOperador AND t.mes = :mes ORDER BY t.idTarifaOperador DESC LIMIT 1")
     TarifaOperadorDto findTarifaOperadorByIdOperadorAndMonth(Long idOperador, Integer mes);
 
+    /**
+     * Busca en una sola consulta las tarifas registradas para los operadores indicados en un año y mes.
+     *
+     * @param idsOperador IDs de los operadores.
+     * @param anio Año de la tarifa.
+     * @param mes Mes de la tarifa.
+     * @return Lista de objetos TarifaOperadorDto con las tarifas de ese periodo.
+     */
+    @Query("SELECT new com.Operadores.Dto.TarifaOperadorDto(t.idTarifaOperador, t.tarifaOperador, t.mes, t.anio, t.operador.idOperador) " +
+            "FROM TarifaOperador t WHERE t.operador.idOperador IN :idsOperador AND t.anio = :anio AND t.mes = :mes")
+    List<TarifaOperadorDto> findTarifasByIdsOperadorAndPeriodo(Collection<Long> idsOperador, Integer anio, Integer mes);
 }
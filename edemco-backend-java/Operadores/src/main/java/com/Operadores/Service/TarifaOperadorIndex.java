@@ -0,0 +1,133 @@
+package com.Operadores.Service;
+
+import com.Operadores.Dto.TarifaOperadorDto;
+import com.Operadores.Repository.TarifaOperadorRepository;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice en memoria de las tarifas de los operadores. Mantiene precalculada la tarifa más reciente
+ * (mayor idTarifa) por operador, por operador y mes, y por operador, año y mes, de modo que resolver
+ * una tarifa es una búsqueda en un mapa. Se carga desde la base de datos en el primer uso y se
+ * actualiza con cada tarifa guardada por TarifaOperadorService.
+ */
+@Component
+public class TarifaOperadorIndex {
+
+    @Autowired
+    private TarifaOperadorRepository tarifaOperadorRepository;
+
+    private static final Logger LOGGER = Logger.getLogger(TarifaOperadorIndex.class);
+
+    private volatile Indice indice;
+
+    /**
+     * Obtiene la tarifa más reciente de un operador para un mes, sin importar el año.
+     *
+     * @param idOperador ID del operador.
+     * @param mes Mes de la tarifa.
+     * @return TarifaOperadorDto encontrada, o null si el operador no tiene tarifa en ese mes.
+     */
+    public TarifaOperadorDto findByOperadorAndMes(Long idOperador, Integer mes) {
+        return obtenerIndice().porOperadorYMes.get(new LlaveMes(idOperador, mes));
+    }
+
+    /**
+     * Obtiene la tarifa más reciente de un operador para un año y mes.
+     *
+     * @param idOperador ID del operador.
+     * @param anio Año de la tarifa.
+     * @param mes Mes de la tarifa.
+     * @return TarifaOperadorDto encontrada, o null si el operador no tiene tarifa en ese periodo.
+     */
+    public TarifaOperadorDto findByOperadorAndPeriodo(Long idOperador, Integer anio, Integer mes) {
+        return obtenerIndice().porOperadorYPeriodo.get(new LlavePeriodo(idOperador, anio, mes));
+    }
+
+    /**
+     * Obtiene la última tarifa registrada de cada operador.
+     *
+     * @return Lista de TarifaOperadorDto, una por operador.
+     */
+    public List<TarifaOperadorDto> findUltimas() {
+        return new ArrayList<>(obtenerIndice().ultimaPorOperador.values());
+    }
+
+    /**
+     * Incorpora al índice tarifas recién guardadas. Una tarifa solo reemplaza a otra de la misma llave
+     * si su idTarifa es mayor o igual.
+     *
+     * @param tarifas Tarifas guardadas, con su idTarifa asignado.
+     */
+    public synchronized void registrar(Collection<TarifaOperadorDto> tarifas) {
+        if (indice == null) {
+            // El índice todavía no se ha cargado; al cargarse incluirá estas tarifas
+            return;
+        }
+        Indice nuevo = indice.copia();
+        tarifas.forEach(nuevo::agregar);
+        indice = nuevo;
+    }
+
+    /**
+     * Vuelve a cargar el índice completo desde la base de datos.
+     */
+    public synchronized void recargar() {
+        Indice nuevo = new Indice(new HashMap<>(), new HashMap<>(), new HashMap<>());
+        List<TarifaOperadorDto> tarifas = tarifaOperadorRepository.findAllPlantas();
+        tarifas.forEach(nuevo::agregar);
+        indice = nuevo;
+        LOGGER.info("Índice de tarifas cargado con " + tarifas.size() + " registros");
+    }
+
+    private Indice obtenerIndice() {
+        Indice actual = indice;
+        if (actual == null) {
+            synchronized (this) {
+                if (indice == null) {
+                    recargar();
+                }
+                actual = indice;
+            }
+        }
+        return actual;
+    }
+
+    private record LlaveMes(Long idOperador, Integer mes) {
+    }
+
+    private record LlavePeriodo(Long idOperador, Integer anio, Integer mes) {
+    }
+
+    /**
+     * Mapas del índice. Se reemplazan completos en cada escritura para que las lecturas no necesiten bloqueo.
+     */
+    private record Indice(Map<Long, TarifaOperadorDto> ultimaPorOperador,
+                          Map<LlaveMes, TarifaOperadorDto> porOperadorYMes,
+                          Map<LlavePeriodo, TarifaOperadorDto> porOperadorYPeriodo) {
+
+        void agregar(TarifaOperadorDto tarifa) {
+            if (tarifa.getIdOperador() == null || tarifa.getIdTarifa() == null) {
+                return;
+            }
+            ultimaPorOperador.merge(tarifa.getIdOperador(), tarifa, Indice::masReciente);
+            porOperadorYMes.merge(new LlaveMes(tarifa.getIdOperador(), tarifa.getMes()), tarifa, Indice::masReciente);
+            porOperadorYPeriodo.merge(new LlavePeriodo(tarifa.getIdOperador(), tarifa.getAnio(), tarifa.getMes()), tarifa, Indice::masReciente);
+        }
+
+        Indice copia() {
+            return new Indice(new HashMap<>(ultimaPorOperador), new HashMap<>(porOperadorYMes), new HashMap<>(porOperadorYPeriodo));
+        }
+
+        private static TarifaOperadorDto masReciente(TarifaOperadorDto actual, TarifaOperadorDto nueva) {
+            return nueva.getIdTarifa() >= actual.getIdTarifa() ? nueva : actual;
+        }
+    }
+}
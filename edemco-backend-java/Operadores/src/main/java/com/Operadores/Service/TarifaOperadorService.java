@@ -1,14 +1,20 @@
 package com.Operadores.Service;
 
+import com.Operadores.Dto.RegistroTarifasDto;
 import com.Operadores.Dto.TarifaOperadorDto;
 import com.Operadores.Entities.Operador;
 import com.Operadores.Entities.TarifaOperador;
 import com.Operadores.Exceptions.ResourceNotFoundException;
+import com.Operadores.Exceptions.TarifasNoRegistradasException;
 import com.Operadores.Repository.OperadorRepository;
+import com.Operadores.Repository.TarifaOperadorBatchRepository;
 import com.Operadores.Repository.TarifaOperadorRepository;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -19,46 +25,148 @@ public class TarifaOperadorService {
     @Autowired
     private TarifaOperadorRepository tarifaOperadorRepository;
 
+    @Autowired
+    private TarifaOperadorBatchRepository tarifaOperadorBatchRepository;
+
     @Autowired
     private OperadorRepository operadorRepository;
 
+    @Autowired
+    private TarifaOperadorIndex tarifaOperadorIndex;
+
     Logger LOGGER = Logger.getLogger(TarifaOperadorService.class);
 
     /**
-     * Guarda una lista de tarifas de operadores.
+     * Guarda una lista de tarifas de operadores y las incorpora al índice de tarifas. La tarifa de un operador que
+     * ya tiene tarifa en el periodo la reemplaza. Si la lista repite un operador o alguno no existe no se guarda
+     * ninguna.
      *
      * @param dto Lista de objetos TarifaOperadorDto a guardar.
      * @return Lista de objetos TarifaOperadorDto con los datos actualizados tras guardarlos.
+     * @throws TarifasNoRegistradasException Si la lista repite operadores o hay operadores inexistentes; la transacción se revierte.
      */
-    public List<TarifaOperadorDto> guardarTarifa(List<TarifaOperadorDto> dto) {
-        LOGGER.info("Se ha guardado un registro");
+    @Transactional(rollbackFor = Exception.class)
+    public List<TarifaOperadorDto> guardarTarifa(List<TarifaOperadorDto> dto) throws TarifasNoRegistradasException {
+        RegistroTarifasDto registro = guardarTarifas(dto);
+        if (!registro.getDuplicadas().isEmpty() || !registro.getOperadoresNoEncontrados().isEmpty()) {
+            // Las tarifas guardadas se revierten junto con la transacción
+            registro.getTarifas().clear();
+            throw new TarifasNoRegistradasException("No se registraron las tarifas: " + registro.getDuplicadas().size()
+                    + " duplicadas y " + registro.getOperadoresNoEncontrados().size() + " operadores no encontrados", registro);
+        }
+        return registro.getTarifas();
+    }
 
+    /**
+     * Registra en una sola transacción las tarifas del mes anterior de varios operadores. Los operadores se
+     * cargan en una sola consulta y las tarifas se insertan y actualizan con JDBC batch. Una tarifa sin idTarifa
+     * de un operador que ya tiene tarifa en el periodo reemplaza la última registrada, para poder corregirla
+     * volviendo a enviarla; solo se descartan las que repiten operador dentro de la misma lista.
+     *
+     * @param dto Lista de objetos TarifaOperadorDto a guardar.
+     * @return RegistroTarifasDto con las tarifas guardadas, las duplicadas y los operadores inexistentes.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public RegistroTarifasDto guardarTarifas(List<TarifaOperadorDto> dto) {
         LocalDate currentDate = LocalDate.now();
         int mes = currentDate.getMonthValue() == 1 ? 12 : currentDate.getMonthValue() - 1;
         int anio = currentDate.getMonthValue() == 1 ? currentDate.getYear() - 1 : currentDate.getYear();
 
-        List<TarifaOperadorDto> newTarifaOperador = new ArrayList<>();
+        RegistroTarifasDto registro = new RegistroTarifasDto();
+        if (dto == null || dto.isEmpty()) {
+            return registro;
+        }
+
+        Set<Long> idsOperador = new HashSet<>();
+        for (TarifaOperadorDto tarifaOperadorDto : dto) {
+            if (tarifaOperadorDto.getIdOperador() != null) {
+                idsOperador.add(tarifaOperadorDto.getIdOperador());
+            }
+        }
+        Map<Long, Operador> operadores = new HashMap<>();
+        for (Operador operador : operadorRepository.findAllById(idsOperador)) {
+            operadores.put(operador.getIdOperador(), operador);
+        }
+        Map<Long, Long> tarifasExistentes = new HashMap<>();
+        if (!idsOperador.isEmpty()) {
+            for (TarifaOperadorDto existente : tarifaOperadorRepository.findTarifasByIdsOperadorAndPeriodo(idsOperador, anio, mes)) {
+                tarifasExistentes.merge(existente.getIdOperador(), existente.getIdTarifa(), Math::max);
+            }
+        }
+
+        List<TarifaOperador> tarifasAGuardar = new ArrayList<>();
+        Set<Long> operadoresEnLista = new HashSet<>();
+        boolean modificaExistentes = false;
 
         for (TarifaOperadorDto tarifaOperadorDto : dto) {
-            Operador operador = operadorRepository.findOperadorById(tarifaOperadorDto.getIdOperador());
-            tarifaOperadorRepository.save(TarifaOperador.builder()
-                    .idTarifaOperador(tarifaOperadorDto.getIdTarifa())
+            Long idOperador = tarifaOperadorDto.getIdOperador();
+            Operador operador = operadores.get(idOperador);
+            if (operador == null) {
+                if (!registro.getOperadoresNoEncontrados().contains(idOperador)) {
+                    registro.getOperadoresNoEncontrados().add(idOperador);
+                }
+                continue;
+            }
+            if (!operadoresEnLista.add(idOperador)) {
+                registro.getDuplicadas().add(new TarifaOperadorDto(tarifaOperadorDto.getIdTarifa(),
+                        tarifaOperadorDto.getTarifaOperador(), mes, anio, idOperador));
+                continue;
+            }
+            modificaExistentes |= tarifaOperadorDto.getIdTarifa() != null;
+            // Sin idTarifa se reescribe la tarifa del operador en el periodo, si ya tiene una
+            Long idTarifa = tarifaOperadorDto.getIdTarifa() != null
+                    ? tarifaOperadorDto.getIdTarifa()
+                    : tarifasExistentes.get(idOperador);
+            tarifasAGuardar.add(TarifaOperador.builder()
+                    .idTarifaOperador(idTarifa)
                     .tarifaOperador(tarifaOperadorDto.getTarifaOperador())
                     .anio(anio)
                     .mes(mes)
                     .operador(operador).build());
-
-            TarifaOperadorDto nuevaTarifaOperadorDto = new TarifaOperadorDto();
-            nuevaTarifaOperadorDto.setIdTarifa(tarifaOperadorDto.getIdTarifa());
-            nuevaTarifaOperadorDto.setMes(mes);
-            nuevaTarifaOperadorDto.setAnio(anio);
-            nuevaTarifaOperadorDto.setIdOperador(tarifaOperadorDto.getIdOperador());
-            nuevaTarifaOperadorDto.setTarifaOperador(tarifaOperadorDto.getTarifaOperador());
-
-            newTarifaOperador.add(nuevaTarifaOperadorDto);
         }
 
-        return newTarifaOperador;
+        List<TarifaOperador> tarifasNuevas = new ArrayList<>();
+        List<TarifaOperador> tarifasModificadas = new ArrayList<>();
+        for (TarifaOperador tarifa : tarifasAGuardar) {
+            (tarifa.getIdTarifaOperador() == null ? tarifasNuevas : tarifasModificadas).add(tarifa);
+        }
+        // Un idTarifa que ya no existe se registra como tarifa nueva
+        for (TarifaOperador noEncontrada : tarifaOperadorBatchRepository.updateAll(tarifasModificadas)) {
+            tarifasModificadas.remove(noEncontrada);
+            noEncontrada.setIdTarifaOperador(null);
+            tarifasNuevas.add(noEncontrada);
+        }
+        tarifaOperadorBatchRepository.insertAll(tarifasNuevas);
+
+        // Los IDs generados se leen en una sola consulta: cada operador guardado tiene una única tarifa nueva en el periodo
+        Set<Long> idsModificadas = new HashSet<>();
+        tarifasModificadas.forEach(tarifa -> idsModificadas.add(tarifa.getIdTarifaOperador()));
+        Set<Long> operadoresNuevos = new HashSet<>();
+        tarifasNuevas.forEach(tarifa -> operadoresNuevos.add(tarifa.getOperador().getIdOperador()));
+        if (!tarifasAGuardar.isEmpty()) {
+            for (TarifaOperadorDto guardada : tarifaOperadorRepository.findTarifasByIdsOperadorAndPeriodo(operadoresEnLista, anio, mes)) {
+                if (idsModificadas.contains(guardada.getIdTarifa()) || operadoresNuevos.contains(guardada.getIdOperador())) {
+                    registro.getTarifas().add(guardada);
+                }
+            }
+        }
+        LOGGER.info("Se han guardado " + registro.getTarifas().size() + " tarifas, " + registro.getDuplicadas().size()
+                + " duplicadas y " + registro.getOperadoresNoEncontrados().size() + " operadores no encontrados");
+
+        // Si se reescribió una tarifa por su idTarifa su mes pudo cambiar, por eso el índice se recarga completo
+        List<TarifaOperadorDto> tarifasGuardadas = registro.getTarifas();
+        boolean recargarIndice = modificaExistentes;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (recargarIndice) {
+                    tarifaOperadorIndex.recargar();
+                } else {
+                    tarifaOperadorIndex.registrar(tarifasGuardadas);
+                }
+            }
+        });
+        return registro;
     }
 
     /**
@@ -93,7 +201,7 @@ public class TarifaOperadorService {
      * @return Objeto Optional que contiene una lista de TarifaOperadorDto con las últimas tarifas.
      */
     public Optional<List<TarifaOperadorDto>> findLastTarifaOperadores() {
-        return Optional.ofNullable(tarifaOperadorRepository.findLastTarifasOperadores());
+        return Optional.of(tarifaOperadorIndex.findUltimas());
     }
 
     /**
@@ -114,6 +222,30 @@ public class TarifaOperadorService {
      * @return Objeto TarifaOperadorDto con los datos de la tarifa encontrada.
      */
     public TarifaOperadorDto findTarifaOperadorByIdOperadorAndMonth(Long idOperador, Integer mes) {
-        return tarifaOperadorRepository.findTarifaOperadorByIdOperadorAndMonth(idOperador, mes);
+        return tarifaOperadorIndex.findByOperadorAndMes(idOperador, mes);
+    }
+
+    /**
+     * Busca en el índice la tarifa más reciente de varios operadores para un mes dado y, opcionalmente, un año.
+     *
+     * @param idsOperador IDs de los operadores cuyas tarifas se desean buscar.
+     * @param anio Año de la tarifa, o null para tomar la más reciente del mes sin importar el año.
+     * @param mes Mes para el cual se desea buscar la tarifa.
+     * @return Lista de objetos TarifaOperadorDto, una por operador con tarifa en ese periodo.
+     */
+    public List<TarifaOperadorDto> findTarifasOperadorByIdsOperadorAndMonth(List<Long> idsOperador, Integer anio, Integer mes) {
+        List<TarifaOperadorDto> tarifas = new ArrayList<>();
+        if (idsOperador == null) {
+            return tarifas;
+        }
+        for (Long idOperador : new LinkedHashSet<>(idsOperador)) {
+            TarifaOperadorDto tarifa = anio != null
+                    ? tarifaOperadorIndex.findByOperadorAndPeriodo(idOperador, anio, mes)
+                    : tarifaOperadorIndex.findByOperadorAndMes(idOperador, mes);
+            if (tarifa != null) {
+                tarifas.add(tarifa);
+            }
+        }
+        return tarifas;
     }
 }
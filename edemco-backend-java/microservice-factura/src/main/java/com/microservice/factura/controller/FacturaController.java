@@ -1,12 +1,16 @@
 package com.microservice.factura.controller;
 
 import com.microservice.factura.dto.FacturaRequestDTO;
+import com.microservice.factura.dto.PaginaFacturasDTO;
 import com.microservice.factura.exceptions.FacturaNotFoundException;
 import com.microservice.factura.service.IFacturaService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+
 @RestController
 @RequestMapping("/api/historico_facturas")
 @CrossOrigin(origins = "*", allowedHeaders = {"Authorization", "Content-Type"})
@@ -40,6 +44,25 @@ public class FacturaController {
         return ResponseEntity.ok(facturaService.listFacturaByIdPlanta(idPlanta));
     }
 
+    /**
+     * Lista una página del histórico de facturas de una planta, de la más reciente a la más antigua.
+     * Para obtener la siguiente página se envían fecha e idFactura con los valores siguienteFecha y
+     * siguienteId de la página anterior.
+     *
+     * @param idPlanta  ID de la planta.
+     * @param fecha     Fecha inicial de la última factura de la página anterior (opcional).
+     * @param idFactura ID de la última factura de la página anterior (opcional).
+     * @param tamano    Cantidad de facturas por página (opcional).
+     * @return Página de facturas con el cursor de la siguiente página.
+     */
+    @GetMapping("/planta/pagina")
+    public ResponseEntity<PaginaFacturasDTO> listPaginaFacturaByPlanta(@RequestParam("idPlanta") String idPlanta,
+                                                                       @RequestParam(value = "fecha", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha,
+                                                                       @RequestParam(value = "idFactura", required = false) Long idFactura,
+                                                                       @RequestParam(value = "tamano", required = false) Integer tamano) {
+        return ResponseEntity.ok(facturaService.listPaginaFacturaByIdPlanta(idPlanta, fecha, idFactura, tamano));
+    }
+
     /**
      * Lista facturas filtradas por fecha.
      *
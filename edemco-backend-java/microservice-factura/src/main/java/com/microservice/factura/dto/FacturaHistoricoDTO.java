@@ -0,0 +1,22 @@
+package com.microservice.factura.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Proyección de la tabla factura con solo las columnas que necesita el histórico de facturas de una planta.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacturaHistoricoDTO {
+
+    private Long idFactura;
+    private String idPlanta;
+    private LocalDate fechaInicial;
+    private String pdf;
+
+}
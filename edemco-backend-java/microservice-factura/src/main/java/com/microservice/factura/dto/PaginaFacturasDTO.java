@@ -0,0 +1,29 @@
+package com.microservice.factura.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Página del histórico de facturas de una planta. Para pedir la siguiente página se envían
+ * siguienteFecha y siguienteId como cursor; ambos son null cuando no hay más facturas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaFacturasDTO {
+
+    private List<FacturaDTO> facturas;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate siguienteFecha;
+
+    private Long siguienteId;
+
+}
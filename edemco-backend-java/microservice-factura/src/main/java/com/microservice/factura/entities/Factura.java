@@ -13,7 +13,7 @@ import java.util.Date;
 @Entity
 @Data
 @Builder
-@Table(name = "factura")
+@Table(name = "factura", indexes = @Index(name = "idx_factura_planta_fecha", columnList = "id_planta, fecha_inicial, id_factura"))
 @AllArgsConstructor
 @NoArgsConstructor
 public class Factura {
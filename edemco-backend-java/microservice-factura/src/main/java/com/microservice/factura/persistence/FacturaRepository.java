@@ -1,10 +1,13 @@
 package com.microservice.factura.persistence;
 
+import com.microservice.factura.dto.FacturaHistoricoDTO;
 import com.microservice.factura.entities.Factura;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -23,23 +26,62 @@ public interface FacturaRepository extends CrudRepository<Factura, Long> {
     List<Factura> listfacturaByIdPlanta(String idPlanta);
 
     /**
-     * Obtiene una lista de facturas asociadas a un ID de planta y filtradas por año y mes.
+     * Obtiene el histórico de facturas de una planta, del más reciente al más antiguo, seleccionando solo
+     * las columnas de FacturaHistoricoDTO.
      *
      * @param idPlanta ID de la planta.
-     * @param year     Año de la fecha.
-     * @param month    Mes de la fecha.
+     * @return Lista de facturas de la planta ordenada por fecha inicial e ID de forma descendente.
+     */
+    @Query("SELECT new com.microservice.factura.dto.FacturaHistoricoDTO(f.idFactura, f.idPlanta, f.fechaInicial, f.pdf) " +
+            "FROM Factura f WHERE f.idPlanta = :idPlanta ORDER BY f.fechaInicial DESC, f.idFactura DESC")
+    List<FacturaHistoricoDTO> listFacturaHistoricoByIdPlanta(String idPlanta);
+
+    /**
+     * Obtiene la primera página del histórico de facturas de una planta, del más reciente al más antiguo.
+     *
+     * @param idPlanta ID de la planta.
+     * @param pageable Tamaño de la página; siempre se consulta la página 0.
+     * @return Lista de facturas de la página.
+     */
+    @Query("SELECT new com.microservice.factura.dto.FacturaHistoricoDTO(f.idFactura, f.idPlanta, f.fechaInicial, f.pdf) " +
+            "FROM Factura f WHERE f.idPlanta = :idPlanta ORDER BY f.fechaInicial DESC, f.idFactura DESC")
+    List<FacturaHistoricoDTO> findPaginaHistoricoByIdPlanta(String idPlanta, Pageable pageable);
+
+    /**
+     * Obtiene la página del histórico de facturas de una planta que sigue al cursor (fecha, idFactura),
+     * recorriendo el índice (id_planta, fecha_inicial, id_factura) sin desplazamientos.
+     *
+     * @param idPlanta  ID de la planta.
+     * @param fecha     Fecha inicial de la última factura de la página anterior.
+     * @param idFactura ID de la última factura de la página anterior.
+     * @param pageable  Tamaño de la página; siempre se consulta la página 0.
+     * @return Lista de facturas de la página.
+     */
+    @Query("SELECT new com.microservice.factura.dto.FacturaHistoricoDTO(f.idFactura, f.idPlanta, f.fechaInicial, f.pdf) " +
+            "FROM Factura f WHERE f.idPlanta = :idPlanta " +
+            "AND (f.fechaInicial < :fecha OR (f.fechaInicial = :fecha AND f.idFactura < :idFactura)) " +
+            "ORDER BY f.fechaInicial DESC, f.idFactura DESC")
+    List<FacturaHistoricoDTO> findPaginaHistoricoByIdPlantaAfter(String idPlanta, LocalDate fecha, Long idFactura, Pageable pageable);
+
+    /**
+     * Obtiene una lista de facturas asociadas a un ID de planta cuya fecha inicial está en el rango [inicio, fin).
+     * El filtro por rango permite usar el índice (id_planta, fecha_inicial) de la tabla factura.
+     *
+     * @param idPlanta ID de la planta.
+     * @param inicio   Fecha inicial del rango, incluida.
+     * @param fin      Fecha final del rango, excluida.
      * @return Lista de facturas relacionadas con la planta y el periodo de tiempo.
      */
-    @Query("SELECT f FROM Factura f WHERE f.idPlanta = :idPlanta AND EXTRACT(YEAR FROM f.fechaInicial) = :year AND EXTRACT(MONTH FROM f.fechaInicial) = :month")
-    List<Factura> listFacturaByIdPlantaAndDate(String idPlanta, String year, String month);
+    @Query("SELECT f FROM Factura f WHERE f.idPlanta = :idPlanta AND f.fechaInicial >= :inicio AND f.fechaInicial < :fin")
+    List<Factura> listFacturaByIdPlantaAndDate(String idPlanta, LocalDate inicio, LocalDate fin);
 
     /**
-     * Obtiene una lista de facturas filtradas por año y mes.
+     * Obtiene una lista de facturas cuya fecha inicial está en el rango [inicio, fin).
      *
-     * @param year  Año de la fecha.
-     * @param month Mes de la fecha.
+     * @param inicio Fecha inicial del rango, incluida.
+     * @param fin    Fecha final del rango, excluida.
      * @return Lista de facturas asociadas al periodo de tiempo.
      */
-    @Query("SELECT f FROM Factura f WHERE EXTRACT(YEAR FROM f.fechaInicial) = :year AND EXTRACT(MONTH FROM f.fechaInicial) = :month")
-    List<Factura> listFacturaByDate(String year, String month);
+    @Query("SELECT f FROM Factura f WHERE f.fechaInicial >= :inicio AND f.fechaInicial < :fin")
+    List<Factura> listFacturaByDate(LocalDate inicio, LocalDate fin);
 }
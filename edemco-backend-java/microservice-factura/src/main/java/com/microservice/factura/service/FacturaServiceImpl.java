@@ -1,11 +1,16 @@
 package com.microservice.factura.service;
 
 import com.microservice.factura.dto.FacturaDTO;
+import com.microservice.factura.dto.FacturaHistoricoDTO;
 import com.microservice.factura.dto.FacturaRequestDTO;
+import com.microservice.factura.dto.PaginaFacturasDTO;
 import com.microservice.factura.entities.Factura;
 import com.microservice.factura.exceptions.FacturaNotFoundException;
 import com.microservice.factura.persistence.FacturaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.sql.Timestamp;
@@ -21,6 +26,12 @@ public class FacturaServiceImpl implements IFacturaService {
     @Autowired
     private FacturaRepository facturaRepository;
 
+    @Value("${factura.historico.tamano-pagina:20}")
+    private int tamanoPaginaPorDefecto;
+
+    @Value("${factura.historico.tamano-pagina-maximo:100}")
+    private int tamanoPaginaMaximo;
+
     /**
      * Lista las facturas asociadas a un ID de planta.
      *
@@ -30,13 +41,62 @@ public class FacturaServiceImpl implements IFacturaService {
      */
     @Override
     public Optional<List<FacturaDTO>> listFacturaByIdPlanta(String idPlanta) throws FacturaNotFoundException {
-        Optional<List<FacturaDTO>> facturaDTOList = Optional.ofNullable(listFacturaToListFacturaDTO(facturaRepository.listfacturaByIdPlanta(idPlanta)));
+        Optional<List<FacturaDTO>> facturaDTOList = Optional.ofNullable(listFacturaHistoricoToListFacturaDTO(facturaRepository.listFacturaHistoricoByIdPlanta(idPlanta)));
         if (facturaDTOList.get().isEmpty()) {
             throw new FacturaNotFoundException("La planta con el id: " + idPlanta + " no existe");
         }
         return facturaDTOList;
     }
 
+    /**
+     * Lista una página del histórico de facturas de una planta. Se consulta una factura más que el tamaño
+     * de la página para saber si existe una página siguiente sin contar el total de registros.
+     *
+     * @param idPlanta  ID de la planta.
+     * @param fecha     Fecha inicial de la última factura de la página anterior, o null para la primera página.
+     * @param idFactura ID de la última factura de la página anterior, o null para la primera página.
+     * @param tamano    Cantidad de facturas por página, o null para el tamaño por defecto.
+     * @return Página de facturas con el cursor de la siguiente página.
+     */
+    @Override
+    public PaginaFacturasDTO listPaginaFacturaByIdPlanta(String idPlanta, LocalDate fecha, Long idFactura, Integer tamano) {
+        int tamanoPagina = tamano == null || tamano <= 0 ? tamanoPaginaPorDefecto : Math.min(tamano, tamanoPaginaMaximo);
+        Pageable pageable = PageRequest.of(0, tamanoPagina + 1);
+        List<FacturaHistoricoDTO> facturas = fecha == null || idFactura == null
+                ? facturaRepository.findPaginaHistoricoByIdPlanta(idPlanta, pageable)
+                : facturaRepository.findPaginaHistoricoByIdPlantaAfter(idPlanta, fecha, idFactura, pageable);
+
+        boolean hayMas = facturas.size() > tamanoPagina;
+        if (hayMas) {
+            facturas = facturas.subList(0, tamanoPagina);
+        }
+        FacturaHistoricoDTO ultima = hayMas ? facturas.get(facturas.size() - 1) : null;
+        return PaginaFacturasDTO.builder()
+                .facturas(listFacturaHistoricoToListFacturaDTO(facturas))
+                .siguienteFecha(ultima != null ? ultima.getFechaInicial() : null)
+                .siguienteId(ultima != null ? ultima.getIdFactura() : null)
+                .build();
+    }
+
+    /**
+     * Convierte una lista de proyecciones FacturaHistoricoDTO a una lista de DTOs FacturaDTO.
+     *
+     * @param facturaList Lista de proyecciones de facturas.
+     * @return Lista de DTOs FacturaDTO.
+     */
+    private List<FacturaDTO> listFacturaHistoricoToListFacturaDTO(List<FacturaHistoricoDTO> facturaList) {
+        List<FacturaDTO> facturaDTOList = new ArrayList<>(facturaList.size());
+        for (FacturaHistoricoDTO factura : facturaList) {
+            LocalDate fechaInicial = factura.getFechaInicial();
+            facturaDTOList.add(FacturaDTO.builder()
+                    .mes(fechaInicial != null ? String.valueOf(fechaInicial.getMonthValue()) : null)
+                    .anio(fechaInicial != null ? String.valueOf(fechaInicial.getYear()) : null)
+                    .pdf(factura.getPdf())
+                    .planta(factura.getIdPlanta()).build());
+        }
+        return facturaDTOList;
+    }
+
     /**
      * Convierte una lista de entidades Factura a una lista de DTOs FacturaDTO.
      *
@@ -73,11 +133,8 @@ public class FacturaServiceImpl implements IFacturaService {
         if (date == null) {
             factura = Optional.ofNullable(listFacturaToListFacturaDTO(facturaRepository.listfacturaByIdPlanta(idPlanta)));
         } else {
-            date = date + "-01";
-            LocalDate fecha = LocalDate.parse(date);
-            String year = String.valueOf(fecha.getYear());
-            String month = String.valueOf(fecha.getMonthValue());
-            factura = Optional.ofNullable(listFacturaToListFacturaDTO(facturaRepository.listFacturaByIdPlantaAndDate(idPlanta, year, month)));
+            LocalDate inicio = LocalDate.parse(date + "-01");
+            factura = Optional.ofNullable(listFacturaToListFacturaDTO(facturaRepository.listFacturaByIdPlantaAndDate(idPlanta, inicio, inicio.plusMonths(1))));
         }
         if (factura.get().isEmpty()) {
             throw new FacturaNotFoundException("La factura no existe");
@@ -94,11 +151,8 @@ public class FacturaServiceImpl implements IFacturaService {
      */
     @Override
     public Optional<List<FacturaDTO>> listFacturaByDate(String date) throws FacturaNotFoundException {
-        date = date + "-01";
-        LocalDate fecha = LocalDate.parse(date);
-        String year = String.valueOf(fecha.getYear());
-        String month = String.valueOf(fecha.getMonthValue());
-        Optional<List<FacturaDTO>> facturaDTOList = Optional.ofNullable(listFacturaToListFacturaDTO(facturaRepository.listFacturaByDate(year, month)));
+        LocalDate inicio = LocalDate.parse(date + "-01");
+        Optional<List<FacturaDTO>> facturaDTOList = Optional.ofNullable(listFacturaToListFacturaDTO(facturaRepository.listFacturaByDate(inicio, inicio.plusMonths(1))));
         if (facturaDTOList.get().isEmpty()) {
             throw new FacturaNotFoundException("La fecha no es valida");
         }
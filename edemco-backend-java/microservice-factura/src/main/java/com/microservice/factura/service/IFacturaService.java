@@ -2,9 +2,11 @@ package com.microservice.factura.service;
 
 import com.microservice.factura.dto.FacturaDTO;
 import com.microservice.factura.dto.FacturaRequestDTO;
+import com.microservice.factura.dto.PaginaFacturasDTO;
 import com.microservice.factura.entities.Factura;
 import com.microservice.factura.exceptions.FacturaNotFoundException;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +24,17 @@ public interface IFacturaService {
      */
     Optional<List<FacturaDTO>> listFacturaByIdPlanta(String idPlanta) throws FacturaNotFoundException;
 
+    /**
+     * Lista una página del histórico de facturas de una planta usando paginación por cursor.
+     *
+     * @param idPlanta  ID de la planta.
+     * @param fecha     Fecha inicial de la última factura de la página anterior, o null para la primera página.
+     * @param idFactura ID de la última factura de la página anterior, o null para la primera página.
+     * @param tamano    Cantidad de facturas por página, o null para el tamaño por defecto.
+     * @return Página de facturas con el cursor de la siguiente página.
+     */
+    PaginaFacturasDTO listPaginaFacturaByIdPlanta(String idPlanta, LocalDate fecha, Long idFactura, Integer tamano);
+
     /**
      * Convierte una lista de entidades Factura a una lista de DTOs FacturaDTO.
      *
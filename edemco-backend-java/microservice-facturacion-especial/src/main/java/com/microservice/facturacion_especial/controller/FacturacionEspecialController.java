@@ -1,6 +1,7 @@
 package com.microservice.facturacion_especial.controller;
 
 import com.microservice.facturacion_especial.dto.FacturacionEspecialDTO;
+import com.microservice.facturacion_especial.dto.ValoresFacturacionEspecialDTO;
 import com.microservice.facturacion_especial.entities.FacturacionEspecial;
 import com.microservice.facturacion_especial.exceptions.FacturacionEspecialException;
 import com.microservice.facturacion_especial.service.IFacturacionEspecialService;
@@ -10,6 +11,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -81,4 +83,35 @@ public class FacturacionEspecialController {
                                                   @RequestParam(name = "mes") Integer mes) throws Exception {
         return iFacturacionEspecialService.findCantidadKwhByIdPlantaAndDate(idPlanta, anio, mes);
     }
+
+    /**
+     * Obtiene en una sola llamada la cantidad de kWh exportados por varias plantas en una fecha específica.
+     *
+     * @param idsPlanta Lista de identificadores de las plantas.
+     * @param anio Año de la consulta.
+     * @param mes Mes de la consulta.
+     * @return Mapa con la cantidad de kWh exportados por identificador de planta.
+     */
+    @PostMapping("/cantidadeskwh")
+    public Map<String, Float> findCantidadesKWhByIdsPlantaAndDate(@RequestBody List<String> idsPlanta,
+                                                                  @RequestParam(name = "anio") Integer anio,
+                                                                  @RequestParam(name = "mes") Integer mes) {
+        return iFacturacionEspecialService.findCantidadesKwhByIdsPlantaAndDate(idsPlanta, anio, mes);
+    }
+
+    /**
+     * Obtiene en una sola llamada el último valor de exportación de varias plantas y, si se envían año y mes,
+     * la cantidad de kWh exportados en ese periodo.
+     *
+     * @param idsPlanta Lista de identificadores de las plantas.
+     * @param anio Año de la consulta (opcional).
+     * @param mes Mes de la consulta (opcional).
+     * @return Lista con los valores de facturación especial de cada planta.
+     */
+    @PostMapping("/valores")
+    public List<ValoresFacturacionEspecialDTO> findValoresByIdsPlanta(@RequestBody List<String> idsPlanta,
+                                                                      @RequestParam(name = "anio", required = false) Integer anio,
+                                                                      @RequestParam(name = "mes", required = false) Integer mes) {
+        return iFacturacionEspecialService.findValoresByIdsPlanta(idsPlanta, anio, mes);
+    }
 }
@@ -0,0 +1,18 @@
+package com.microservice.facturacion_especial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cantidad de kWh exportados registrada para una planta en un periodo.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CantidadKwhPlantaDTO {
+
+    private String idPlanta;
+    private Float cantidadkWh;
+
+}
@@ -0,0 +1,18 @@
+package com.microservice.facturacion_especial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Último valor de exportación registrado para una planta.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ValorExportacionPlantaDTO {
+
+    private String idPlanta;
+    private Float valorExportacion;
+
+}
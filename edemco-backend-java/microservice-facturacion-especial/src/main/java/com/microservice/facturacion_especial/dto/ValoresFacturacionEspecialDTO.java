@@ -0,0 +1,22 @@
+package com.microservice.facturacion_especial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Valores de facturación especial de una planta: el último valor de exportación registrado y, si se
+ * consultó un periodo, la cantidad de kWh exportados en ese año y mes.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ValoresFacturacionEspecialDTO {
+
+    private String idPlanta;
+    private Double valorExportacion;
+    private Float cantidadkWh;
+
+}
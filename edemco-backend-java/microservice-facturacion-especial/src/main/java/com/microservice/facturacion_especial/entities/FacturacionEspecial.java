@@ -9,7 +9,9 @@ import lombok.NoArgsConstructor;
 @Data
 @Entity
 @Builder
-@Table(name = "facturacion_especial")
+@Table(name = "facturacion_especial", indexes = {
+        @Index(name = "idx_facturacion_especial_planta", columnList = "id_planta, id_facturacion_especial"),
+        @Index(name = "idx_facturacion_especial_planta_periodo", columnList = "id_planta, anio, mes, id_facturacion_especial")})
 @AllArgsConstructor
 @NoArgsConstructor
 public class FacturacionEspecial {
@@ -1,9 +1,13 @@
 package com.microservice.facturacion_especial.persistence;
 
+import com.microservice.facturacion_especial.dto.CantidadKwhPlantaDTO;
+import com.microservice.facturacion_especial.dto.ValorExportacionPlantaDTO;
 import com.microservice.facturacion_especial.entities.FacturacionEspecial;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -30,4 +34,28 @@ public interface FacturacionEspecialRepository extends CrudRepository<Facturacio
      */
     @Query("SELECT f.cantidadkWh FROM FacturacionEspecial f WHERE f.idPlanta = :idPlanta AND f.anio = :anio AND f.mes = :mes ORDER BY f.idFacturacionEspecial DESC LIMIT 1")
     Float findCantidadKwhByIdPlantaAndDate(String idPlanta, Integer anio, Integer mes);
+
+    /**
+     * Obtiene en una sola consulta la última cantidad de kWh exportados de cada una de las plantas indicadas en un año y mes específicos.
+     *
+     * @param idsPlanta Identificadores de las plantas.
+     * @param anio Año de la consulta.
+     * @param mes Mes de la consulta.
+     * @return Lista de {@link CantidadKwhPlantaDTO}, una por planta con facturación especial registrada en el periodo.
+     */
+    @Query("SELECT new com.microservice.facturacion_especial.dto.CantidadKwhPlantaDTO(f.idPlanta, f.cantidadkWh) FROM FacturacionEspecial f " +
+            "WHERE f.idFacturacionEspecial IN (SELECT MAX(f2.idFacturacionEspecial) FROM FacturacionEspecial f2 " +
+            "WHERE f2.idPlanta IN :idsPlanta AND f2.anio = :anio AND f2.mes = :mes GROUP BY f2.idPlanta)")
+    List<CantidadKwhPlantaDTO> findCantidadesKwhByIdsPlantaAndDate(Collection<String> idsPlanta, Integer anio, Integer mes);
+
+    /**
+     * Obtiene en una sola consulta el último valor de exportación de cada una de las plantas indicadas.
+     *
+     * @param idsPlanta Identificadores de las plantas.
+     * @return Lista de {@link ValorExportacionPlantaDTO}, una por planta con facturación especial registrada.
+     */
+    @Query("SELECT new com.microservice.facturacion_especial.dto.ValorExportacionPlantaDTO(f.idPlanta, f.valorExportacion) FROM FacturacionEspecial f " +
+            "WHERE f.idFacturacionEspecial IN (SELECT MAX(f2.idFacturacionEspecial) FROM FacturacionEspecial f2 " +
+            "WHERE f2.idPlanta IN :idsPlanta GROUP BY f2.idPlanta)")
+    List<ValorExportacionPlantaDTO> findLastValoresExportacionByIdsPlanta(Collection<String> idsPlanta);
 }
@@ -0,0 +1,183 @@
+package com.microservice.facturacion_especial.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microservice.facturacion_especial.dto.CantidadKwhPlantaDTO;
+import com.microservice.facturacion_especial.dto.ValorExportacionPlantaDTO;
+import com.microservice.facturacion_especial.persistence.FacturacionEspecialRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché local y acotada del último valor de exportación de cada planta y de la cantidad de kWh exportados por
+ * planta y periodo. Las plantas sin registro también se guardan (como Optional vacío) para no repetir la
+ * consulta. Las entradas vencen según su tiempo de vida y toda escritura en facturacion_especial pasa por
+ * FacturacionEspecialServiceImpl.save, que invalida las entradas de la planta guardada. Cada planta lleva un
+ * número de versión que cambia al invalidarla, de modo que una consulta por lote iniciada antes de una
+ * invalidación no guarda sus valores después de ella.
+ */
+@Component
+public class FacturacionEspecialCache {
+
+    private final FacturacionEspecialRepository facturacionEspecialRepository;
+    private final Cache<String, Optional<Double>> valoresExportacion;
+    private final Cache<LlavePeriodo, Optional<Float>> cantidadesKwh;
+    private final Map<String, AtomicLong> versiones = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FacturacionEspecialCache(FacturacionEspecialRepository facturacionEspecialRepository,
+                                    @Value("${facturacion-especial.cache.ttl-minutos:60}") long ttlMinutos,
+                                    @Value("${facturacion-especial.cache.tamano-maximo:10000}") long tamanoMaximo) {
+        this.facturacionEspecialRepository = facturacionEspecialRepository;
+        this.valoresExportacion = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutos))
+                .build();
+        this.cantidadesKwh = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutos))
+                .build();
+    }
+
+    /**
+     * Obtiene el último valor de exportación de una planta.
+     *
+     * @param idPlanta Identificador de la planta.
+     * @return {@link Optional} con el valor de exportación si la planta tiene registros.
+     */
+    public Optional<Double> findLastValorExportacion(String idPlanta) {
+        if (idPlanta == null) {
+            return Optional.empty();
+        }
+        return valoresExportacion.get(idPlanta, facturacionEspecialRepository::findLastValorExportacionByIdPlanta);
+    }
+
+    /**
+     * Obtiene el último valor de exportación de varias plantas; las que no están en caché se consultan juntas.
+     *
+     * @param idsPlanta Identificadores de las plantas.
+     * @return Mapa del valor de exportación por planta; las plantas sin registros no aparecen.
+     */
+    public Map<String, Double> findLastValoresExportacion(Collection<String> idsPlanta) {
+        Map<String, Double> valores = new HashMap<>();
+        Map<String, Long> faltantes = new HashMap<>();
+        for (String idPlanta : idsPlanta) {
+            if (idPlanta == null) {
+                continue;
+            }
+            Optional<Double> valor = valoresExportacion.getIfPresent(idPlanta);
+            if (valor != null) {
+                valor.ifPresent(v -> valores.put(idPlanta, v));
+            } else {
+                // La versión se toma antes de consultar para no guardar un valor invalidado mientras tanto
+                faltantes.put(idPlanta, version(idPlanta));
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            Map<String, Optional<Double>> consultados = new HashMap<>();
+            faltantes.keySet().forEach(idPlanta -> consultados.put(idPlanta, Optional.empty()));
+            for (ValorExportacionPlantaDTO valor : facturacionEspecialRepository.findLastValoresExportacionByIdsPlanta(faltantes.keySet())) {
+                consultados.put(valor.getIdPlanta(), Optional.ofNullable(valor.getValorExportacion()).map(Float::doubleValue));
+            }
+            consultados.forEach((idPlanta, valor) -> {
+                guardar(valoresExportacion, idPlanta, idPlanta, valor, faltantes.get(idPlanta));
+                valor.ifPresent(v -> valores.put(idPlanta, v));
+            });
+        }
+        return valores;
+    }
+
+    /**
+     * Obtiene la cantidad de kWh exportados por una planta en un año y mes.
+     *
+     * @param idPlanta Identificador de la planta.
+     * @param anio Año de la consulta.
+     * @param mes Mes de la consulta.
+     * @return Cantidad de kWh exportados, o null si la planta no tiene registro en ese periodo.
+     */
+    public Float findCantidadKwh(String idPlanta, Integer anio, Integer mes) {
+        if (idPlanta == null) {
+            return null;
+        }
+        return cantidadesKwh.get(new LlavePeriodo(idPlanta, anio, mes),
+                llave -> Optional.ofNullable(facturacionEspecialRepository.findCantidadKwhByIdPlantaAndDate(idPlanta, anio, mes)))
+                .orElse(null);
+    }
+
+    /**
+     * Obtiene la cantidad de kWh exportados por varias plantas en un año y mes; las que no están en caché se consultan juntas.
+     *
+     * @param idsPlanta Identificadores de las plantas.
+     * @param anio Año de la consulta.
+     * @param mes Mes de la consulta.
+     * @return Mapa de la cantidad de kWh exportados por planta; las plantas sin registro no aparecen.
+     */
+    public Map<String, Float> findCantidadesKwh(Collection<String> idsPlanta, Integer anio, Integer mes) {
+        Map<String, Float> cantidades = new HashMap<>();
+        Map<String, Long> faltantes = new HashMap<>();
+        for (String idPlanta : idsPlanta) {
+            if (idPlanta == null) {
+                continue;
+            }
+            Optional<Float> cantidad = cantidadesKwh.getIfPresent(new LlavePeriodo(idPlanta, anio, mes));
+            if (cantidad != null) {
+                cantidad.ifPresent(c -> cantidades.put(idPlanta, c));
+            } else {
+                faltantes.put(idPlanta, version(idPlanta));
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            Map<String, Optional<Float>> consultadas = new HashMap<>();
+            faltantes.keySet().forEach(idPlanta -> consultadas.put(idPlanta, Optional.empty()));
+            for (CantidadKwhPlantaDTO cantidad : facturacionEspecialRepository.findCantidadesKwhByIdsPlantaAndDate(faltantes.keySet(), anio, mes)) {
+                consultadas.put(cantidad.getIdPlanta(), Optional.ofNullable(cantidad.getCantidadkWh()));
+            }
+            consultadas.forEach((idPlanta, cantidad) -> {
+                guardar(cantidadesKwh, new LlavePeriodo(idPlanta, anio, mes), idPlanta, cantidad, faltantes.get(idPlanta));
+                cantidad.ifPresent(c -> cantidades.put(idPlanta, c));
+            });
+        }
+        return cantidades;
+    }
+
+    /**
+     * Descarta los valores en caché de una planta para que se vuelvan a consultar en el siguiente uso.
+     *
+     * @param idPlanta Identificador de la planta modificada.
+     */
+    public void invalidar(String idPlanta) {
+        if (idPlanta == null) {
+            return;
+        }
+        // La versión cambia antes de descartar, así una consulta por lote en curso ya no puede guardar su valor
+        versiones.computeIfAbsent(idPlanta, k -> new AtomicLong()).incrementAndGet();
+        valoresExportacion.invalidate(idPlanta);
+        cantidadesKwh.asMap().keySet().removeIf(llave -> llave.idPlanta().equals(idPlanta));
+    }
+
+    private long version(String idPlanta) {
+        return versiones.computeIfAbsent(idPlanta, k -> new AtomicLong()).get();
+    }
+
+    /**
+     * Guarda un valor consultado solo si la planta no se invalidó desde que se tomó su versión. La comparación
+     * y la escritura son atómicas respecto a la invalidación de la misma llave.
+     */
+    private <K, V> void guardar(Cache<K, V> cache, K llave, String idPlanta, V valor, long version) {
+        cache.asMap().compute(llave, (k, actual) -> version(idPlanta) == version ? valor : actual);
+    }
+
+    private record LlavePeriodo(String idPlanta, Integer anio, Integer mes) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.microservice.facturacion_especial.service;
 
 import com.microservice.facturacion_especial.dto.FacturacionEspecialDTO;
+import com.microservice.facturacion_especial.dto.ValoresFacturacionEspecialDTO;
 import com.microservice.facturacion_especial.entities.FacturacionEspecial;
 import com.microservice.facturacion_especial.exceptions.FacturacionEspecialException;
 import com.microservice.facturacion_especial.persistence.FacturacionEspecialRepository;
@@ -8,8 +9,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementación del servicio para manejar la lógica de negocio de Facturación Especial.
@@ -20,6 +27,9 @@ public class FacturacionEspecialServiceImpl implements IFacturacionEspecialServi
     @Autowired
     private FacturacionEspecialRepository facturacionEspecialRepository;
 
+    @Autowired
+    private FacturacionEspecialCache facturacionEspecialCache;
+
     /**
      * Recupera todas las entidades de facturación especial.
      *
@@ -52,7 +62,7 @@ public class FacturacionEspecialServiceImpl implements IFacturacionEspecialServi
     @Override
     public Double findLastValorExportacionByIdPlanta(String idPlanta) throws Exception {
         try {
-            Optional<Double> valorExportacionOptional = facturacionEspecialRepository.findLastValorExportacionByIdPlanta(idPlanta);
+            Optional<Double> valorExportacionOptional = facturacionEspecialCache.findLastValorExportacion(idPlanta);
             if (valorExportacionOptional.isPresent()) {
                 return valorExportacionOptional.get();
             } else {
@@ -105,6 +115,7 @@ public class FacturacionEspecialServiceImpl implements IFacturacionEspecialServi
                 .build();
 
         facturacionEspecialRepository.save(facturacionEspecial);
+        facturacionEspecialCache.invalidar(idPlanta);
 
         return facturacionEspecial;
     }
@@ -121,12 +132,59 @@ public class FacturacionEspecialServiceImpl implements IFacturacionEspecialServi
     @Override
     public Float findCantidadKwhByIdPlantaAndDate(String idPlanta, Integer anio, Integer mes) throws Exception {
         try {
-            return facturacionEspecialRepository.findCantidadKwhByIdPlantaAndDate(idPlanta, anio, mes);
+            return facturacionEspecialCache.findCantidadKwh(idPlanta, anio, mes);
         } catch (Exception e) {
             throw new FacturacionEspecialException(e.getMessage());
         }
     }
 
+    /**
+     * Recupera en una sola consulta la cantidad de kWh exportados por varias plantas en un año y mes específicos.
+     *
+     * @param idsPlanta Identificadores de las plantas.
+     * @param anio Año de la consulta.
+     * @param mes Mes de la consulta.
+     * @return Mapa con la cantidad de kWh exportados por identificador de planta; las plantas sin registro no aparecen.
+     */
+    @Override
+    public Map<String, Float> findCantidadesKwhByIdsPlantaAndDate(List<String> idsPlanta, Integer anio, Integer mes) {
+        if (idsPlanta == null || idsPlanta.isEmpty()) {
+            return new HashMap<>();
+        }
+        return facturacionEspecialCache.findCantidadesKwh(new HashSet<>(idsPlanta), anio, mes);
+    }
+
+    /**
+     * Recupera en una sola llamada el último valor de exportación de varias plantas y, si se indica un periodo,
+     * la cantidad de kWh exportados en ese año y mes.
+     *
+     * @param idsPlanta Identificadores de las plantas.
+     * @param anio Año de la consulta, o null para no consultar cantidades de kWh.
+     * @param mes Mes de la consulta, o null para no consultar cantidades de kWh.
+     * @return Lista de {@link ValoresFacturacionEspecialDTO}, una por planta solicitada.
+     */
+    @Override
+    public List<ValoresFacturacionEspecialDTO> findValoresByIdsPlanta(List<String> idsPlanta, Integer anio, Integer mes) {
+        List<ValoresFacturacionEspecialDTO> valores = new ArrayList<>();
+        if (idsPlanta == null || idsPlanta.isEmpty()) {
+            return valores;
+        }
+        Set<String> plantas = new LinkedHashSet<>(idsPlanta);
+        plantas.remove(null);
+        Map<String, Double> valoresExportacion = facturacionEspecialCache.findLastValoresExportacion(plantas);
+        Map<String, Float> cantidades = anio != null && mes != null
+                ? facturacionEspecialCache.findCantidadesKwh(plantas, anio, mes)
+                : new HashMap<>();
+        for (String idPlanta : plantas) {
+            valores.add(ValoresFacturacionEspecialDTO.builder()
+                    .idPlanta(idPlanta)
+                    .valorExportacion(valoresExportacion.get(idPlanta))
+                    .cantidadkWh(cantidades.get(idPlanta))
+                    .build());
+        }
+        return valores;
+    }
+
     /**
      * Calcula el valor de exportación usando la fórmula: excedente - costo agregado.
      *
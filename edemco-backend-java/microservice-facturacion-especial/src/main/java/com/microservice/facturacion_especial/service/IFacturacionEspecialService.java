@@ -1,10 +1,12 @@
 package com.microservice.facturacion_especial.service;
 
 import com.microservice.facturacion_especial.dto.FacturacionEspecialDTO;
+import com.microservice.facturacion_especial.dto.ValoresFacturacionEspecialDTO;
 import com.microservice.facturacion_especial.entities.FacturacionEspecial;
 import com.microservice.facturacion_especial.exceptions.FacturacionEspecialException;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interfaz que define los métodos del servicio para gestionar la facturación especial.
@@ -54,4 +56,25 @@ public interface IFacturacionEspecialService {
      * @throws Exception Si ocurre algún error al recuperar los datos.
      */
     Float findCantidadKwhByIdPlantaAndDate(String idPlanta, Integer anio, Integer mes) throws Exception;
+
+    /**
+     * Recupera la cantidad de kWh exportados por varias plantas en un año y mes específicos.
+     *
+     * @param idsPlanta Identificadores de las plantas.
+     * @param anio Año de la consulta.
+     * @param mes Mes de la consulta.
+     * @return Mapa con la cantidad de kWh exportados por identificador de planta.
+     */
+    Map<String, Float> findCantidadesKwhByIdsPlantaAndDate(List<String> idsPlanta, Integer anio, Integer mes);
+
+    /**
+     * Recupera en una sola llamada el último valor de exportación de varias plantas y, si se indica un periodo,
+     * la cantidad de kWh exportados en ese año y mes.
+     *
+     * @param idsPlanta Identificadores de las plantas.
+     * @param anio Año de la consulta, o null para no consultar cantidades de kWh.
+     * @param mes Mes de la consulta, o null para no consultar cantidades de kWh.
+     * @return Lista de {@link ValoresFacturacionEspecialDTO}, una por planta solicitada.
+     */
+    List<ValoresFacturacionEspecialDTO> findValoresByIdsPlanta(List<String> idsPlanta, Integer anio, Integer mes);
 }
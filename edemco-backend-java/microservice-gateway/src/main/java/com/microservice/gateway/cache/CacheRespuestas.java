@@ -0,0 +1,213 @@
+package com.microservice.gateway.cache;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Caché en memoria de las respuestas GET de las rutas que tienen el filtro CacheRespuesta. El tamaño total
+ * se acota por la suma de bytes de los cuerpos guardados y cada entrada vence según el tiempo de vida de su
+ * ruta. Cada ruta lleva un número de versión que cambia al invalidarla, de modo que una respuesta obtenida
+ * antes de una invalidación no se guarda después de ella. Una ruta puede declarar que depende de otras para que
+ * las escrituras en ellas también la invaliden. Solo se invalida por las escrituras que pasan por el gateway y
+ * por el vencimiento de cada entrada. Los aciertos y fallos se publican en la métrica
+ * cache.gets de la caché "gateway.respuestas".
+ */
+@Component
+public class CacheRespuestas {
+
+    private final Cache<Llave, Respuesta> respuestas;
+    private final Map<String, AtomicLong> versiones = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> dependientes = new ConcurrentHashMap<>();
+    private final long tamanoMaximoEntrada;
+
+    @Autowired
+    public CacheRespuestas(MeterRegistry meterRegistry,
+                           @Value("${api.cache-respuestas.tamano-maximo-mb:64}") long tamanoMaximoMb,
+                           @Value("${api.cache-respuestas.tamano-maximo-entrada-kb:1024}") long tamanoMaximoEntradaKb) {
+        this.tamanoMaximoEntrada = tamanoMaximoEntradaKb * 1024;
+        this.respuestas = Caffeine.newBuilder()
+                .maximumWeight(tamanoMaximoMb * 1024 * 1024)
+                .weigher((Llave llave, Respuesta respuesta) -> respuesta.cuerpo().length + llave.uri().length())
+                .expireAfter(new SegunTiempoDeVida())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, respuestas, "gateway.respuestas");
+    }
+
+    /**
+     * Obtiene la respuesta guardada para una llave.
+     *
+     * @param llave Llave de la petición.
+     * @return Respuesta guardada, o null si no existe o ya venció.
+     */
+    public Respuesta obtener(Llave llave) {
+        return respuestas.getIfPresent(llave);
+    }
+
+    /**
+     * Obtiene la versión actual de una ruta, que se debe tomar antes de pedir la respuesta al servicio.
+     *
+     * @param idRuta ID de la ruta del gateway.
+     * @return Versión actual de la ruta.
+     */
+    public long version(String idRuta) {
+        return versiones.computeIfAbsent(idRuta, k -> new AtomicLong()).get();
+    }
+
+    /**
+     * Guarda una respuesta si su ruta no se invalidó desde que se tomó la versión y si su cuerpo no supera
+     * el tamaño máximo por entrada.
+     *
+     * @param llave Llave de la petición.
+     * @param respuesta Respuesta a guardar.
+     * @param version Versión de la ruta tomada antes de pedir la respuesta.
+     */
+    public void guardar(Llave llave, Respuesta respuesta, long version) {
+        if (respuesta.cuerpo().length > tamanoMaximoEntrada || version(llave.ruta()) != version) {
+            return;
+        }
+        respuestas.put(llave, respuesta);
+    }
+
+    /**
+     * Descarta las respuestas guardadas de las rutas indicadas.
+     *
+     * @param idsRuta IDs de las rutas del gateway; si está vacío se descarta toda la caché.
+     */
+    public void invalidar(Collection<String> idsRuta) {
+        if (idsRuta == null || idsRuta.isEmpty()) {
+            versiones.values().forEach(AtomicLong::incrementAndGet);
+            respuestas.invalidateAll();
+            return;
+        }
+        // Una ruta sin versión todavía no ha pedido ninguna respuesta, así que no hay nada que descartar
+        idsRuta.forEach(idRuta -> versiones.computeIfPresent(idRuta, (k, version) -> {
+            version.incrementAndGet();
+            return version;
+        }));
+        respuestas.asMap().keySet().removeIf(llave -> idsRuta.contains(llave.ruta()));
+    }
+
+    /**
+     * Registra una ruta con caché y las rutas de las que dependen sus respuestas.
+     *
+     * @param idRuta ID de la ruta con caché.
+     * @param dependeDe IDs de las rutas cuyas escrituras también invalidan a idRuta.
+     */
+    public void registrarRuta(String idRuta, Collection<String> dependeDe) {
+        dependientes.computeIfAbsent(idRuta, k -> ConcurrentHashMap.newKeySet()).add(idRuta);
+        if (dependeDe != null) {
+            dependeDe.forEach(origen -> dependientes.computeIfAbsent(origen, k -> ConcurrentHashMap.newKeySet()).add(idRuta));
+        }
+    }
+
+    /**
+     * Invalida las rutas afectadas por una escritura que pasó por una ruta: la misma ruta, si tiene caché, y
+     * las rutas que dependen de ella.
+     *
+     * @param idRuta ID de la ruta por la que pasó la escritura.
+     */
+    public void invalidarPorEscritura(String idRuta) {
+        Set<String> afectadas = dependientes.get(idRuta);
+        if (afectadas != null) {
+            invalidar(afectadas);
+        }
+    }
+
+    /**
+     * Calcula el ETag fuerte de un cuerpo a partir de su huella SHA-256.
+     *
+     * @param cuerpo Cuerpo de la respuesta.
+     * @return ETag entre comillas.
+     */
+    public static String calcularEtag(byte[] cuerpo) {
+        try {
+            byte[] huella = MessageDigest.getInstance("SHA-256").digest(cuerpo);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(huella).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e);
+        }
+    }
+
+    /**
+     * Indica si el header If-None-Match de una petición coincide con un ETag, comparando en forma débil.
+     *
+     * @param ifNoneMatch Valor del header If-None-Match, puede ser null.
+     * @param etag ETag de la respuesta.
+     * @return true si el cliente ya tiene esa versión de la respuesta.
+     */
+    public static boolean coincideEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String buscado = sinPrefijoDebil(etag);
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.equals("*") || sinPrefijoDebil(valor).equals(buscado)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String sinPrefijoDebil(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    /**
+     * Llave de una respuesta: la ruta del gateway, la ruta y consulta de la petición y, si la ruta lo exige,
+     * el usuario autenticado.
+     */
+    public record Llave(String ruta, String uri, String usuario) {
+    }
+
+    /**
+     * Respuesta guardada: tipo de contenido, cuerpo, ETag y tiempo de vida definido por su ruta.
+     */
+    public record Respuesta(MediaType tipoContenido, byte[] cuerpo, String etag, Duration tiempoDeVida) {
+
+        public static Respuesta de(MediaType tipoContenido, byte[] cuerpo, String etag, Duration tiempoDeVida) {
+            return new Respuesta(tipoContenido, cuerpo, etag != null ? etag : calcularEtag(cuerpo), tiempoDeVida);
+        }
+    }
+
+    /**
+     * Hace vencer cada respuesta según el tiempo de vida de su ruta.
+     */
+    private static final class SegunTiempoDeVida implements Expiry<Llave, Respuesta> {
+
+        @Override
+        public long expireAfterCreate(Llave llave, Respuesta respuesta, long currentTime) {
+            return respuesta.tiempoDeVida().toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Llave llave, Respuesta respuesta, long currentTime, long currentDuration) {
+            return respuesta.tiempoDeVida().toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(Llave llave, Respuesta respuesta, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,8 +0,0 @@
-package com.microservice.gateway.exceptions;
-
-public class UnauthorizedAccessException extends RuntimeException{
-
-    public UnauthorizedAccessException (String message){
-        super(message);
-    }
-}
@@ -1,55 +1,98 @@
 package com.microservice.gateway.filter;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
 
-import com.microservice.gateway.exceptions.UnauthorizedAccessException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservice.gateway.exceptions.dto.ErrorMessage;
 import com.microservice.gateway.util.JwtUtil;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Filtro que exige un token JWT válido en las rutas protegidas y agrega el header loggedInUser con el usuario
+ * del token. Las peticiones rechazadas se responden directamente con 401 sobre el exchange, sin lanzar
+ * excepciones ni escribir en consola, y se cuentan en la métrica gateway.autenticacion.rechazos por motivo.
+ */
 @Component
 public class AuthenticationFilter extends AbstractGatewayFilterFactory<AuthenticationFilter.Config> {
 
+    private static final String PREFIJO_BEARER = "Bearer ";
+
     @Autowired
     private RouteValidator routeValidator;
 
     @Autowired
     private JwtUtil jwtUtil;
 
-    public AuthenticationFilter() {
+    private final Map<MotivoRechazo, Counter> rechazos = new EnumMap<>(MotivoRechazo.class);
+    private final Map<MotivoRechazo, byte[]> respuestasRechazo = new EnumMap<>(MotivoRechazo.class);
+
+    @Autowired
+    public AuthenticationFilter(MeterRegistry meterRegistry, ObjectMapper objectMapper) throws JsonProcessingException {
         super(Config.class);
+        for (MotivoRechazo motivo : MotivoRechazo.values()) {
+            rechazos.put(motivo, Counter.builder("gateway.autenticacion.rechazos")
+                    .description("Peticiones rechazadas por el filtro de autenticación")
+                    .tag("motivo", motivo.getCodigo())
+                    .register(meterRegistry));
+            // El cuerpo de cada rechazo se serializa una sola vez
+            respuestasRechazo.put(motivo, objectMapper.writeValueAsBytes(
+                    new ErrorMessage(HttpStatus.UNAUTHORIZED, HttpStatus.UNAUTHORIZED.value(), motivo.getMensaje())));
+        }
     }
 
     @Override
     public GatewayFilter apply(Config config) {
-        return (((exchange, chain) -> {
-            ServerHttpRequest loggedInUser = null;
-            if (routeValidator.isSecured.test(exchange.getRequest())){
-                //header contains token or not
-                if (!exchange.getRequest().getHeaders().containsKey(HttpHeaders.AUTHORIZATION)){
-                    throw new UnauthorizedAccessException("No se encuentra header de autorizacion");
-                }
-
-                String authHeader = exchange.getRequest().getHeaders().get(HttpHeaders.AUTHORIZATION).get(0);
-                if (authHeader != null && authHeader.startsWith("Bearer ")){                    
-                    authHeader=authHeader.substring(7);
-                }
-                try {
-                    jwtUtil.validateToken(authHeader);
-                    loggedInUser = exchange.getRequest()
-                            .mutate()
-                            .header("loggedInUser", jwtUtil.extractUsername(authHeader))
-                            .build();
-                }catch (Exception e){
-                    System.out.println(e);
-                    throw new UnauthorizedAccessException("Acceso no autorizado a la aplicacion");
-                }
+        return (exchange, chain) -> {
+            if (!routeValidator.isSecured.test(exchange.getRequest())) {
+                return chain.filter(exchange);
             }
+            String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (authHeader == null) {
+                return rechazar(exchange, MotivoRechazo.SIN_AUTORIZACION);
+            }
+            if (authHeader.startsWith(PREFIJO_BEARER)) {
+                authHeader = authHeader.substring(PREFIJO_BEARER.length());
+            }
+            JwtUtil.VerificacionToken verificacion = jwtUtil.verificarToken(authHeader);
+            if (!verificacion.esValido()) {
+                return rechazar(exchange, verificacion.motivoRechazo());
+            }
+            ServerHttpRequest loggedInUser = exchange.getRequest()
+                    .mutate()
+                    .header("loggedInUser", verificacion.token().usuario())
+                    .build();
             return chain.filter(exchange.mutate().request(loggedInUser).build());
-        }));
+        };
+    }
+
+    /**
+     * Termina la petición con una respuesta 401 cuyo cuerpo es el ErrorMessage del motivo de rechazo.
+     */
+    private Mono<Void> rechazar(ServerWebExchange exchange, MotivoRechazo motivo) {
+        rechazos.get(motivo).increment();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] cuerpo = respuestasRechazo.get(motivo);
+        DataBuffer buffer = response.bufferFactory().wrap(cuerpo);
+        return response.writeWith(Mono.just(buffer));
     }
 
     public static class Config{
@@ -0,0 +1,198 @@
+package com.microservice.gateway.filter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.microservice.gateway.cache.CacheRespuestas;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import reactor.core.publisher.Mono;
+
+/**
+ * Filtro opcional por ruta que responde las peticiones GET desde la caché del gateway. Las respuestas 200 del
+ * servicio se guardan con un ETag (el del servicio o la huella del cuerpo) y, mientras no venzan ni se
+ * invaliden, se responden sin llegar al servicio; si el cliente envía If-None-Match con el mismo ETag se
+ * responde 304 sin cuerpo. Debe ir después de AuthenticationFilter en la ruta, así una respuesta guardada
+ * nunca se entrega a una petición sin token válido. Las escrituras que pasan por el gateway invalidan la
+ * ruta mediante InvalidacionCacheFilter; los cambios hechos sin pasar por el gateway, como los que un servicio
+ * hace a través de otro, solo se ven cuando la respuesta vence, así que ttlSegundos es el retraso aceptado para
+ * la ruta.
+ */
+@Component
+public class CacheRespuestaFilter extends AbstractGatewayFilterFactory<CacheRespuestaFilter.Config> {
+
+    private static final String HEADER_USUARIO = "loggedInUser";
+    private static final String CONTROL_CACHE_CLIENTE = "private, no-cache";
+
+    @Autowired
+    private CacheRespuestas cacheRespuestas;
+
+    private final Counter noModificadas;
+
+    @Autowired
+    public CacheRespuestaFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.noModificadas = Counter.builder("gateway.cache.respuestas.no_modificadas")
+                .description("Peticiones respondidas con 304 porque el cliente ya tenía la respuesta")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String idRuta = config.getRouteId();
+        Duration tiempoDeVida = Duration.ofSeconds(config.getTtlSegundos());
+        cacheRespuestas.registrarRuta(idRuta, config.getDependeDe());
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            String usuario = null;
+            if (config.isPorUsuario()) {
+                usuario = request.getHeaders().getFirst(HEADER_USUARIO);
+                if (usuario == null) {
+                    return chain.filter(exchange);
+                }
+            }
+            String uri = request.getURI().getRawQuery() != null
+                    ? request.getURI().getRawPath() + "?" + request.getURI().getRawQuery()
+                    : request.getURI().getRawPath();
+            CacheRespuestas.Llave llave = new CacheRespuestas.Llave(idRuta, uri, usuario);
+            CacheRespuestas.Respuesta respuesta = cacheRespuestas.obtener(llave);
+            if (respuesta != null) {
+                return responder(exchange, respuesta);
+            }
+            // La versión se toma antes de ir al servicio para no guardar una respuesta invalidada mientras tanto
+            long version = cacheRespuestas.version(idRuta);
+            Captura captura = new Captura(exchange, llave, version, tiempoDeVida);
+            return chain.filter(exchange.mutate().response(captura).build());
+        };
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttlSegundos", "porUsuario");
+    }
+
+    /**
+     * Responde una petición con una respuesta guardada, o con 304 si el cliente ya la tiene.
+     */
+    private Mono<Void> responder(ServerWebExchange exchange, CacheRespuestas.Respuesta respuesta) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(respuesta.etag());
+        headers.setCacheControl(CONTROL_CACHE_CLIENTE);
+        if (CacheRespuestas.coincideEtag(exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH), respuesta.etag())) {
+            noModificadas.increment();
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        if (respuesta.tipoContenido() != null) {
+            headers.setContentType(respuesta.tipoContenido());
+        }
+        headers.setContentLength(respuesta.cuerpo().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(respuesta.cuerpo())));
+    }
+
+    /**
+     * Decorador de la respuesta del servicio que reúne el cuerpo de las respuestas 200, lo guarda en la caché
+     * y lo entrega al cliente con su ETag.
+     */
+    private class Captura extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final CacheRespuestas.Llave llave;
+        private final long version;
+        private final Duration tiempoDeVida;
+
+        Captura(ServerWebExchange exchange, CacheRespuestas.Llave llave, long version, Duration tiempoDeVida) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.llave = llave;
+            this.version = version;
+            this.tiempoDeVida = tiempoDeVida;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode estado = getStatusCode();
+            if (estado == null || estado.value() != HttpStatus.OK.value() || !sePuedeGuardar(getHeaders())) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body).flatMap(buffer -> {
+                byte[] cuerpo = new byte[buffer.readableByteCount()];
+                buffer.read(cuerpo);
+                DataBufferUtils.release(buffer);
+                HttpHeaders headers = getHeaders();
+                CacheRespuestas.Respuesta respuesta = CacheRespuestas.Respuesta.de(
+                        headers.getContentType(), cuerpo, headers.getETag(), tiempoDeVida);
+                cacheRespuestas.guardar(llave, respuesta, version);
+                headers.setETag(respuesta.etag());
+                headers.setCacheControl(CONTROL_CACHE_CLIENTE);
+                headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                if (CacheRespuestas.coincideEtag(exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH), respuesta.etag())) {
+                    noModificadas.increment();
+                    setStatusCode(HttpStatus.NOT_MODIFIED);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    return setComplete();
+                }
+                headers.setContentLength(cuerpo.length);
+                return super.writeWith(Mono.just(bufferFactory().wrap(cuerpo)));
+            });
+        }
+
+        /**
+         * Las respuestas que fijan cookies o que el servicio marca como no almacenables no se guardan.
+         */
+        private boolean sePuedeGuardar(HttpHeaders headers) {
+            if (headers.containsKey(HttpHeaders.SET_COOKIE)) {
+                return false;
+            }
+            String controlCache = headers.getCacheControl();
+            return controlCache == null || !(controlCache.contains("no-store") || controlCache.contains("private"));
+        }
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+
+        /**
+         * Tiempo de vida en segundos de las respuestas guardadas de la ruta.
+         */
+        private long ttlSegundos = 60;
+
+        /**
+         * Si es true la llave incluye el usuario autenticado, de modo que cada usuario tiene sus propias respuestas.
+         */
+        private boolean porUsuario = true;
+
+        /**
+         * IDs de otras rutas cuyas escrituras también invalidan las respuestas de esta ruta.
+         */
+        private List<String> dependeDe = new ArrayList<>();
+
+        private String routeId;
+    }
+
+}
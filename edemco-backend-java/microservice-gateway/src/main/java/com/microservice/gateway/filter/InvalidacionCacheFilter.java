@@ -0,0 +1,51 @@
+package com.microservice.gateway.filter;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.microservice.gateway.cache.CacheRespuestas;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Filtro global que invalida la caché de respuestas cuando una escritura (POST, PUT, PATCH o DELETE) termina
+ * con éxito en una ruta: se descartan las respuestas de esa ruta y de las rutas que declararon depender de ella.
+ */
+@Component
+public class InvalidacionCacheFilter implements GlobalFilter, Ordered {
+
+    @Autowired
+    private CacheRespuestas cacheRespuestas;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        HttpMethod metodo = exchange.getRequest().getMethod();
+        if (metodo == HttpMethod.GET || metodo == HttpMethod.HEAD || metodo == HttpMethod.OPTIONS) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).doOnSuccess(ignorado -> {
+            HttpStatusCode estado = exchange.getResponse().getStatusCode();
+            if (estado != null && estado.is2xxSuccessful()) {
+                cacheRespuestas.invalidarPorEscritura(route.getId());
+            }
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,160 @@
+package com.microservice.gateway.filter;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microservice.gateway.exceptions.dto.ErrorMessage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import reactor.core.publisher.Mono;
+
+/**
+ * Filtro opcional por ruta que limita la cantidad de peticiones con una cubeta de fichas en memoria por usuario
+ * y ruta. Cada cubeta admite una ráfaga de hasta "capacidad" peticiones y recupera "recargaPorSegundo" fichas por
+ * segundo; cuando no hay fichas la petición se responde directamente con 429 y el header Retry-After, sin llegar
+ * al servicio. El usuario se toma del header loggedInUser, por lo que el filtro debe ir después de
+ * AuthenticationFilter; si no existe se usa la dirección del cliente. Las cubetas inactivas se descartan y los
+ * rechazos se cuentan en la métrica gateway.limite.rechazos por ruta.
+ */
+@Component
+public class LimitePeticionesFilter extends AbstractGatewayFilterFactory<LimitePeticionesFilter.Config> {
+
+    private static final String HEADER_USUARIO = "loggedInUser";
+    private static final Duration ESPERA_MAXIMA = Duration.ofHours(1);
+
+    private final MeterRegistry meterRegistry;
+    private final Cache<Llave, Cubeta> cubetas;
+    private final byte[] respuestaRechazo;
+
+    @Autowired
+    public LimitePeticionesFilter(MeterRegistry meterRegistry, ObjectMapper objectMapper,
+                                  @Value("${api.limite-peticiones.tamano-maximo:100000}") long tamanoMaximo,
+                                  @Value("${api.limite-peticiones.inactividad-minutos:10}") long inactividadMinutos) throws JsonProcessingException {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.cubetas = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterAccess(Duration.ofMinutes(inactividadMinutos))
+                .build();
+        // El cuerpo del rechazo se serializa una sola vez
+        this.respuestaRechazo = objectMapper.writeValueAsBytes(new ErrorMessage(HttpStatus.TOO_MANY_REQUESTS,
+                HttpStatus.TOO_MANY_REQUESTS.value(), "Demasiadas peticiones, intente de nuevo más tarde"));
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String idRuta = config.getRouteId();
+        double capacidad = Math.max(1, config.getCapacidad());
+        double fichasPorNano = config.getRecargaPorSegundo() / 1_000_000_000d;
+        Counter rechazos = Counter.builder("gateway.limite.rechazos")
+                .description("Peticiones rechazadas con 429 por superar el límite de la ruta")
+                .tag("ruta", idRuta != null ? idRuta : "")
+                .register(meterRegistry);
+        return (exchange, chain) -> {
+            Llave llave = new Llave(idRuta, cliente(exchange.getRequest()));
+            Cubeta cubeta = cubetas.get(llave, k -> new Cubeta(capacidad, System.nanoTime()));
+            long esperaNanos = cubeta.consumir(capacidad, fichasPorNano, System.nanoTime());
+            if (esperaNanos == 0) {
+                return chain.filter(exchange);
+            }
+            rechazos.increment();
+            return rechazar(exchange, esperaNanos);
+        };
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("capacidad", "recargaPorSegundo");
+    }
+
+    private static String cliente(ServerHttpRequest request) {
+        String usuario = request.getHeaders().getFirst(HEADER_USUARIO);
+        if (usuario != null) {
+            return usuario;
+        }
+        InetSocketAddress direccion = request.getRemoteAddress();
+        return direccion != null && direccion.getAddress() != null ? direccion.getAddress().getHostAddress() : "";
+    }
+
+    /**
+     * Termina la petición con una respuesta 429 que indica en Retry-After cuántos segundos esperar.
+     */
+    private Mono<Void> rechazar(ServerWebExchange exchange, long esperaNanos) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        long esperaSegundos = Math.min(esperaNanos, ESPERA_MAXIMA.toNanos()) / 1_000_000_000L + 1;
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(esperaSegundos));
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(respuestaRechazo)));
+    }
+
+    private record Llave(String ruta, String cliente) {
+    }
+
+    /**
+     * Cubeta de fichas de un cliente en una ruta. Las fichas se recargan al consultarla según el tiempo
+     * transcurrido desde la última recarga.
+     */
+    private static final class Cubeta {
+
+        private double fichas;
+        private long ultimaRecarga;
+
+        Cubeta(double fichas, long ahora) {
+            this.fichas = fichas;
+            this.ultimaRecarga = ahora;
+        }
+
+        /**
+         * Consume una ficha si hay disponible.
+         *
+         * @return 0 si se consumió la ficha, o los nanosegundos que faltan para que haya una.
+         */
+        synchronized long consumir(double capacidad, double fichasPorNano, long ahora) {
+            fichas = Math.min(capacidad, fichas + (ahora - ultimaRecarga) * fichasPorNano);
+            ultimaRecarga = ahora;
+            if (fichas >= 1) {
+                fichas -= 1;
+                return 0;
+            }
+            return fichasPorNano > 0 ? (long) Math.ceil((1 - fichas) / fichasPorNano) : Long.MAX_VALUE;
+        }
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+
+        /**
+         * Cantidad máxima de peticiones que un usuario puede hacer seguidas en la ruta.
+         */
+        private int capacidad = 20;
+
+        /**
+         * Fichas que recupera la cubeta de cada usuario por segundo.
+         */
+        private double recargaPorSegundo = 10;
+
+        private String routeId;
+    }
+
+}
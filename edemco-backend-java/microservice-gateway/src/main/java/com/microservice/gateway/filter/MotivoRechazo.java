@@ -0,0 +1,30 @@
+package com.microservice.gateway.filter;
+
+/**
+ * Motivos por los que el gateway rechaza una petición a una ruta protegida. El código se usa como etiqueta
+ * de la métrica gateway.autenticacion.rechazos y el mensaje se envía en el cuerpo de la respuesta 401.
+ */
+public enum MotivoRechazo {
+
+    SIN_AUTORIZACION("sin_autorizacion", "No se encuentra header de autorizacion"),
+    TOKEN_MALFORMADO("token_malformado", "Acceso no autorizado a la aplicacion"),
+    FIRMA_INVALIDA("firma_invalida", "Acceso no autorizado a la aplicacion"),
+    TOKEN_EXPIRADO("token_expirado", "El token de acceso ha expirado"),
+    TOKEN_INVALIDO("token_invalido", "Acceso no autorizado a la aplicacion");
+
+    private final String codigo;
+    private final String mensaje;
+
+    MotivoRechazo(String codigo, String mensaje) {
+        this.codigo = codigo;
+        this.mensaje = mensaje;
+    }
+
+    public String getCodigo() {
+        return codigo;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+}
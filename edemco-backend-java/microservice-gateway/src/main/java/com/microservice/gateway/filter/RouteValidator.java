@@ -1,22 +1,128 @@
 package com.microservice.gateway.filter;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.PathContainer;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
 
+/**
+ * Clasifica las peticiones en rutas abiertas o protegidas según los patrones declarados en
+ * api.rutas.abiertas y api.rutas.protegidas. Los patrones se compilan una sola vez con PathPatternParser
+ * y se organizan en un árbol por sus segmentos literales iniciales, de modo que clasificar una ruta solo
+ * recorre los segmentos de la ruta y evalúa los patrones de su rama, sin importar cuántos haya configurados.
+ * Si varios patrones coinciden prevalece el más específico; las rutas que no coinciden con ninguno son protegidas.
+ */
 @Component
 public class RouteValidator {
 
-    public static final List<String> openApiEndPoints = List.of(
-            "auth/register",
-            "auth/token",
-            "/eureka"
-    );
+    private final Nodo raiz = new Nodo();
 
-    public Predicate<ServerHttpRequest> isSecured =
-            request -> openApiEndPoints
-                    .stream()
-                    .noneMatch(uri -> request.getURI().getPath().contains(uri));
+    public final Predicate<ServerHttpRequest> isSecured =
+            request -> isSecured(request.getPath().pathWithinApplication());
+
+    @Autowired
+    public RouteValidator(@Value("${api.rutas.abiertas:/auth/register,/auth/token,/eureka/**}") List<String> abiertas,
+                          @Value("${api.rutas.protegidas:}") List<String> protegidas) {
+        PathPatternParser parser = new PathPatternParser();
+        abiertas.stream().filter(patron -> !patron.isBlank())
+                .forEach(patron -> registrar(parser, patron.trim(), false));
+        protegidas.stream().filter(patron -> !patron.isBlank())
+                .forEach(patron -> registrar(parser, patron.trim(), true));
+        raiz.ordenar();
+    }
+
+    /**
+     * Indica si una ruta requiere autenticación.
+     *
+     * @param ruta Ruta de la petición, sin contexto de la aplicación.
+     * @return true si la ruta es protegida, false si es abierta.
+     */
+    public boolean isSecured(PathContainer ruta) {
+        Nodo nodo = raiz;
+        Regla regla = nodo.buscar(ruta, null);
+        for (PathContainer.Element elemento : ruta.elements()) {
+            if (!(elemento instanceof PathContainer.PathSegment segmento)) {
+                continue;
+            }
+            nodo = nodo.hijos.get(segmento.valueToMatch());
+            if (nodo == null) {
+                break;
+            }
+            regla = nodo.buscar(ruta, regla);
+        }
+        return regla == null || regla.protegida();
+    }
+
+    /**
+     * Indica si una ruta requiere autenticación.
+     *
+     * @param ruta Ruta de la petición.
+     * @return true si la ruta es protegida, false si es abierta.
+     */
+    public boolean isSecured(String ruta) {
+        return isSecured(PathContainer.parsePath(ruta));
+    }
+
+    private void registrar(PathPatternParser parser, String patron, boolean protegida) {
+        PathPattern pathPattern = parser.parse(patron);
+        Nodo nodo = raiz;
+        for (String segmento : pathPattern.getPatternString().split("/")) {
+            if (segmento.isEmpty()) {
+                continue;
+            }
+            if (segmento.indexOf('*') >= 0 || segmento.indexOf('{') >= 0 || segmento.indexOf('?') >= 0) {
+                // Desde aquí el patrón deja de ser literal; se evalúa completo en este nodo
+                break;
+            }
+            nodo = nodo.hijos.computeIfAbsent(segmento, k -> new Nodo());
+        }
+        nodo.reglas.add(new Regla(pathPattern, protegida));
+    }
+
+    private record Regla(PathPattern patron, boolean protegida) {
+
+        static final Comparator<Regla> ESPECIFICIDAD =
+                (a, b) -> PathPattern.SPECIFICITY_COMPARATOR.compare(a.patron, b.patron);
+    }
+
+    /**
+     * Nodo del árbol de patrones: sus hijos por segmento literal y las reglas cuyo prefijo literal termina en él,
+     * ordenadas de la más a la menos específica. El árbol no se modifica después de construirse.
+     */
+    private static final class Nodo {
+
+        private final Map<String, Nodo> hijos = new HashMap<>();
+        private final List<Regla> reglas = new ArrayList<>();
+
+        /**
+         * Devuelve la regla más específica entre la encontrada hasta ahora y la primera regla de este nodo que coincide.
+         */
+        Regla buscar(PathContainer ruta, Regla actual) {
+            for (Regla regla : reglas) {
+                if (actual != null && Regla.ESPECIFICIDAD.compare(regla, actual) >= 0) {
+                    // Las reglas restantes de este nodo son menos específicas que la ya encontrada
+                    break;
+                }
+                if (regla.patron().matches(ruta)) {
+                    return regla;
+                }
+            }
+            return actual;
+        }
+
+        void ordenar() {
+            reglas.sort(Regla.ESPECIFICIDAD);
+            hijos.values().forEach(Nodo::ordenar);
+        }
+    }
 }
@@ -1,47 +1,196 @@
 package com.microservice.gateway.util;
 
-import java.security.Key;
-import java.util.function.Function;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import com.microservice.gateway.filter.MotivoRechazo;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
+/**
+ * Verificación de los tokens JWT de las peticiones que pasan por el gateway. El parser con la llave de firma
+ * se construye una sola vez al iniciar, cada token se verifica con un único análisis del que se toman el
+ * usuario y la expiración, y los tokens ya verificados se recuerdan por su huella SHA-256 hasta que expiran.
+ * Los tokens rechazados también se recuerdan durante un tiempo para que una ráfaga con el mismo token
+ * inválido o expirado no vuelva a analizarse. Los aciertos y fallos se publican en la métrica cache.gets de
+ * las cachés "jwt.tokens" y "jwt.tokens.rechazados".
+ */
 @Component
 public class JwtUtil {
 
-    
-    @Value("${api.secret}")
-    private String SECRET;
-    
+    private final JwtParser jwtParser;
+    private final Cache<String, TokenVerificado> tokensVerificados;
+    private final Cache<String, MotivoRechazo> tokensRechazados;
+
+    @Autowired
+    public JwtUtil(@Value("${api.secret}") String secret, MeterRegistry meterRegistry,
+                   @Value("${api.jwt.cache.tamano-maximo:10000}") long tamanoMaximo,
+                   @Value("${api.jwt.cache.rechazados-ttl-segundos:60}") long ttlRechazadosSegundos) {
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(secret)))
+                .build();
+        this.tokensVerificados = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfter(new HastaExpiracion())
+                .recordStats()
+                .build();
+        this.tokensRechazados = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttlRechazadosSegundos))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokensVerificados, "jwt.tokens");
+        CaffeineCacheMetrics.monitor(meterRegistry, tokensRechazados, "jwt.tokens.rechazados");
+    }
+
+    /**
+     * Verifica la firma y la vigencia de un token y obtiene su usuario. Si el token ya se verificó o ya se
+     * rechazó se responde desde la caché sin volver a analizarlo. Los errores del token no se propagan como
+     * excepciones, sino que se devuelven como el motivo de rechazo.
+     *
+     * @param token Token JWT sin el prefijo Bearer.
+     * @return VerificacionToken con el usuario (subject) y la expiración, o con el motivo de rechazo.
+     */
+    public VerificacionToken verificarToken(String token) {
+        if (!tieneFormatoJws(token)) {
+            return VerificacionToken.rechazado(MotivoRechazo.TOKEN_MALFORMADO);
+        }
+        String huella = huella(token);
+        TokenVerificado verificado = tokensVerificados.getIfPresent(huella);
+        if (verificado != null && verificado.vigente()) {
+            return VerificacionToken.valido(verificado);
+        }
+        MotivoRechazo rechazo = tokensRechazados.getIfPresent(huella);
+        if (rechazo != null) {
+            return VerificacionToken.rechazado(rechazo);
+        }
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            Date expiracion = claims.getExpiration();
+            verificado = new TokenVerificado(claims.getSubject(), expiracion != null ? expiracion.toInstant() : null);
+        } catch (ExpiredJwtException e) {
+            return rechazar(huella, MotivoRechazo.TOKEN_EXPIRADO);
+        } catch (SignatureException e) {
+            return rechazar(huella, MotivoRechazo.FIRMA_INVALIDA);
+        } catch (MalformedJwtException | UnsupportedJwtException | IllegalArgumentException e) {
+            return rechazar(huella, MotivoRechazo.TOKEN_MALFORMADO);
+        } catch (PrematureJwtException e) {
+            // Un token que aún no es válido puede serlo en unos segundos, por eso no se recuerda
+            return VerificacionToken.rechazado(MotivoRechazo.TOKEN_INVALIDO);
+        } catch (JwtException e) {
+            return rechazar(huella, MotivoRechazo.TOKEN_INVALIDO);
+        }
+        // Solo se recuerdan los tokens con expiración, para no aceptarlos indefinidamente
+        if (verificado.expiracion() != null) {
+            tokensVerificados.put(huella, verificado);
+        }
+        return VerificacionToken.valido(verificado);
+    }
+
+    private VerificacionToken rechazar(String huella, MotivoRechazo motivo) {
+        tokensRechazados.put(huella, motivo);
+        return VerificacionToken.rechazado(motivo);
+    }
 
-    public void validateToken(final String token){
-        Jwts.parserBuilder().setSigningKey(getSignKey()).build().parseClaimsJws(token);
+    /**
+     * Comprueba sin analizar el token que tenga las tres partes de un JWS compacto (encabezado.contenido.firma).
+     */
+    private static boolean tieneFormatoJws(String token) {
+        if (token == null || token.isBlank()) {
+            return false;
+        }
+        int primerPunto = token.indexOf('.');
+        int segundoPunto = primerPunto < 0 ? -1 : token.indexOf('.', primerPunto + 1);
+        return primerPunto > 0 && segundoPunto > primerPunto + 1 && segundoPunto < token.length() - 1
+                && token.indexOf('.', segundoPunto + 1) < 0;
     }
 
-    private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64URL.decode(SECRET);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String huella(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e);
+        }
     }
 
-    public String extractUsername(String token){
-        return extractClaim(token,Claims::getSubject);
+    /**
+     * Resultado de verificar un token: el usuario autenticado y el instante en que el token expira.
+     */
+    public record TokenVerificado(String usuario, Instant expiracion) {
+
+        boolean vigente() {
+            return expiracion != null && Instant.now().isBefore(expiracion);
+        }
     }
 
-    public  <T> T extractClaim(String token, Function<Claims,T> claimsResolver){
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    /**
+     * Resultado de verificar un token: el token verificado o el motivo por el que se rechazó.
+     */
+    public record VerificacionToken(TokenVerificado token, MotivoRechazo motivoRechazo) {
+
+        static VerificacionToken valido(TokenVerificado token) {
+            return new VerificacionToken(token, null);
+        }
+
+        static VerificacionToken rechazado(MotivoRechazo motivo) {
+            return new VerificacionToken(null, motivo);
+        }
+
+        public boolean esValido() {
+            return token != null;
+        }
     }
 
-    private Claims extractAllClaims(String token){
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Hace que cada token verificado salga de la caché en el momento en que expira.
+     */
+    private static final class HastaExpiracion implements Expiry<String, TokenVerificado> {
+
+        private static final Duration VIGENCIA_MAXIMA = Duration.ofDays(365);
+
+        @Override
+        public long expireAfterCreate(String huella, TokenVerificado token, long currentTime) {
+            Duration vigencia = Duration.between(Instant.now(), token.expiracion());
+            if (vigencia.isNegative()) {
+                return 0;
+            }
+            return vigencia.compareTo(VIGENCIA_MAXIMA) > 0 ? VIGENCIA_MAXIMA.toNanos() : vigencia.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String huella, TokenVerificado token, long currentTime, long currentDuration) {
+            return expireAfterCreate(huella, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String huella, TokenVerificado token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,69 @@
+package com.microservice.gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.PathContainer;
+
+/**
+ * Medición del costo de clasificar rutas con los patrones de la configuración y con cien veces más patrones
+ * registrados en otras ramas. No forma parte de la ejecución normal de las pruebas; se ejecuta con
+ * mvn test -Dgroups=benchmark -Dsurefire.excludedGroups= y solo informa los tiempos, sin compararlos.
+ */
+@Tag("benchmark")
+class RouteValidatorBenchmarkTests {
+
+	private static final List<String> ABIERTAS = List.of("/auth/register", "/auth/token", "/eureka/**");
+	private static final List<String> PROTEGIDAS = List.of("/api/**");
+
+	private static final List<PathContainer> RUTAS = List.of(
+			PathContainer.parsePath("/api/planta/auth/register-x"),
+			PathContainer.parsePath("/api/historico_facturas/planta/pagina"),
+			PathContainer.parsePath("/api/tarifaoperador/lote"),
+			PathContainer.parsePath("/auth/token"),
+			PathContainer.parsePath("/eureka/apps/msvc-gateway"));
+
+	private static final int ITERACIONES = 1_000_000;
+
+	@Test
+	void clasificacionConPocosYMuchosPatrones() {
+		List<String> abiertas = new ArrayList<>(ABIERTAS);
+		List<String> protegidas = new ArrayList<>(PROTEGIDAS);
+		for (int i = 0; i < 500; i++) {
+			abiertas.add("/api/servicio" + i + "/publico/**");
+			protegidas.add("/api/servicio" + i + "/**");
+		}
+		RouteValidator pocos = new RouteValidator(ABIERTAS, PROTEGIDAS);
+		RouteValidator muchos = new RouteValidator(abiertas, protegidas);
+
+		for (PathContainer ruta : RUTAS) {
+			assertEquals(pocos.isSecured(ruta), muchos.isSecured(ruta), ruta.value());
+		}
+
+		for (int i = 0; i < 5; i++) {
+			medir(pocos);
+			medir(muchos);
+		}
+		System.out.printf("RouteValidator: %d patrones %.1f ns/op, %d patrones %.1f ns/op%n",
+				ABIERTAS.size() + PROTEGIDAS.size(), medir(pocos), abiertas.size() + protegidas.size(), medir(muchos));
+	}
+
+	private static double medir(RouteValidator routeValidator) {
+		int protegidas = 0;
+		long inicio = System.nanoTime();
+		for (int i = 0; i < ITERACIONES; i++) {
+			if (routeValidator.isSecured(RUTAS.get(i % RUTAS.size()))) {
+				protegidas++;
+			}
+		}
+		long duracion = System.nanoTime() - inicio;
+		// Evita que el compilador descarte el ciclo
+		assertEquals(ITERACIONES / RUTAS.size() * 3, protegidas);
+		return (double) duracion / ITERACIONES;
+	}
+
+}
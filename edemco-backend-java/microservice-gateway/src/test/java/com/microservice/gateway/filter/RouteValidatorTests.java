@@ -0,0 +1,43 @@
+package com.microservice.gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+class RouteValidatorTests {
+
+	private static final List<String> ABIERTAS = List.of("/auth/register", "/auth/token", "/eureka/**");
+	private static final List<String> PROTEGIDAS = List.of("/api/**");
+
+	@Test
+	void clasificaRutasAbiertasYProtegidas() {
+		RouteValidator routeValidator = new RouteValidator(ABIERTAS, PROTEGIDAS);
+
+		assertFalse(routeValidator.isSecured("/auth/register"));
+		assertFalse(routeValidator.isSecured("/auth/token"));
+		assertFalse(routeValidator.isSecured("/eureka"));
+		assertFalse(routeValidator.isSecured("/eureka/apps"));
+		assertTrue(routeValidator.isSecured("/api/planta/auth/register-x"));
+		assertTrue(routeValidator.isSecured("/api/planta/auth/register"));
+		assertTrue(routeValidator.isSecured("/auth/register-x"));
+		assertTrue(routeValidator.isSecured("/api/generacion/resumen"));
+		assertTrue(routeValidator.isSecured("/ruta/sin/patron"));
+		assertTrue(routeValidator.isSecured.test(MockServerHttpRequest.get("/api/planta/auth/register-x").build()));
+		assertFalse(routeValidator.isSecured.test(MockServerHttpRequest.get("/auth/token?usuario=x").build()));
+	}
+
+	@Test
+	void prevaleceElPatronMasEspecifico() {
+		RouteValidator routeValidator = new RouteValidator(
+				List.of("/api/publico/**"), List.of("/api/**", "/api/publico/privado/**"));
+
+		assertFalse(routeValidator.isSecured("/api/publico/documento"));
+		assertTrue(routeValidator.isSecured("/api/publico/privado/documento"));
+		assertTrue(routeValidator.isSecured("/api/planta"));
+	}
+
+}
@@ -1,7 +1,12 @@
 package com.microservice.generation.client;
 
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
 /**
@@ -25,4 +30,17 @@ public interface FacturacionEspecialClient {
     Float findCantidadKWhByIdPlantaAndDate(@RequestParam(name = "idPlanta") String idPlanta,
                                            @RequestParam(name = "anio") Integer anio,
                                            @RequestParam(name = "mes") Integer mes) throws Exception;
+
+    /**
+     * Obtiene en una sola llamada la cantidad de kWh de varias plantas en una fecha determinada.
+     *
+     * @param idsPlanta IDs de las plantas.
+     * @param anio Año del periodo de consumo.
+     * @param mes Mes del periodo de consumo.
+     * @return Mapa con la cantidad de kWh por ID de planta; las plantas sin registro en el periodo no aparecen.
+     */
+    @PostMapping("/api/facturacion_especial/cantidadeskwh")
+    Map<String, Float> findCantidadesKWhByIdsPlantaAndDate(@RequestBody List<String> idsPlanta,
+                                                           @RequestParam(name = "anio") Integer anio,
+                                                           @RequestParam(name = "mes") Integer mes);
 }
@@ -1,9 +1,15 @@
 package com.microservice.generation.client;
 
+import java.util.List;
+
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import com.microservice.generation.controller.sto.PlantaReferenciaDto;
+
 /**
  * Cliente Feign para interactuar con el microservicio de integración Siesa.
  */
@@ -59,4 +65,21 @@ public interface IntegracionSiesaClient {
     @GetMapping("/api/planta/checkfacturacionespecial")
     String checkFacturacionEspecial(@RequestParam(name = "idPlanta") String idPlanta) throws Exception;
 
+    /**
+     * Obtiene en una sola llamada los datos de referencia de un conjunto de plantas a partir de sus nombres.
+     *
+     * @param nombresPlanta Nombres de las plantas.
+     * @return Lista de PlantaReferenciaDto de las plantas encontradas.
+     */
+    @PostMapping("/api/planta/referencias")
+    List<PlantaReferenciaDto> findPlantasReferenciaByNombres(@RequestBody List<String> nombresPlanta);
+
+    /**
+     * Obtiene en una sola llamada los datos de referencia de un conjunto de plantas a partir de sus IDs.
+     *
+     * @param idsPlanta IDs de las plantas.
+     * @return Lista de PlantaReferenciaDto de las plantas encontradas.
+     */
+    @PostMapping("/api/planta/referencias/ids")
+    List<PlantaReferenciaDto> findPlantasReferenciaByIds(@RequestBody List<String> idsPlanta);
 }
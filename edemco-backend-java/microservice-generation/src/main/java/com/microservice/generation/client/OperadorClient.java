@@ -1,7 +1,11 @@
 package com.microservice.generation.client;
 
+import java.util.List;
+
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import com.microservice.generation.controller.sto.OperadorDto;
@@ -35,4 +39,14 @@ public interface OperadorClient {
     TarifaOperadorDto findTarifaOperadorByIdOperadorAndMonth(@RequestParam(name = "idOperador") Long idOperador,
                                                              @RequestParam(name = "mes") Integer mes);
 
+    /**
+     * Obtiene en una sola llamada la tarifa de varios operadores para un mes específico.
+     *
+     * @param idsOperador IDs de los operadores para buscar la tarifa.
+     * @param mes Mes para el cual se desea obtener la tarifa.
+     * @return Lista de objetos TarifaOperadorDto, una por operador con tarifa en ese mes.
+     */
+    @PostMapping("/api/tarifaoperador/tarifasoperadordto")
+    List<TarifaOperadorDto> findTarifasOperadorByIdsOperadorAndMonth(@RequestBody List<Long> idsOperador,
+                                                                    @RequestParam(name = "mes") Integer mes);
 }
@@ -12,9 +12,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.microservice.generation.dto.AcumuladoGeneracionDTO;
 import com.microservice.generation.dto.DatosGeneracionDTO;
 import com.microservice.generation.dto.DatosGeneracionExistentesDTO;
+import com.microservice.generation.dto.InconsistenciaAcumuladoDTO;
 import com.microservice.generation.dto.PlantasListDTO;
+import com.microservice.generation.dto.ResumenGeneracionDTO;
 import com.microservice.generation.dto.ValorUnidadDTO;
 import com.microservice.generation.service.GeneratorServiceImpl;
 
@@ -82,6 +85,21 @@ public class GeneratorController {
     }
 
 
+    /**
+     * Obtiene en una sola consulta la generación actual, el valor total y los acumulados de una planta para una fecha dada.
+     *
+     * @param idPlanta ID de la planta.
+     * @param anio Año de la fecha.
+     * @param mes Mes de la fecha.
+     * @return ResumenGeneracionDTO de la planta, o vacío si no tiene registro en ese mes.
+     */
+    @GetMapping("/resumen")
+    public ResumenGeneracionDTO findResumenByIdPlantaAndDate(@RequestParam(name = "idPlanta") String idPlanta,
+                                                             @RequestParam(name = "anio") Integer anio,
+                                                             @RequestParam(name = "mes") Integer mes) {
+        return generatorService.findResumenByDateAndPlanta(anio, mes, idPlanta);
+    }
+
     @PostMapping("/datos_generacion_actual")
     public ResponseEntity<?> findAllGeneration(@RequestBody List<PlantasListDTO> plantasListDTOsList) throws Exception{
         return ResponseEntity.ok(generatorService.findAllGeneration(plantasListDTOsList));
@@ -92,4 +110,43 @@ public class GeneratorController {
     public ResponseEntity<?> modifyGeneration(@RequestBody DatosGeneracionExistentesDTO datosGeneracionExistente) throws Exception{
         return ResponseEntity.ok(generatorService.modifyGeneration(datosGeneracionExistente));
     }
+
+    /**
+     * Obtiene la generación, el ahorro y el ahorro en codos acumulados de una planta hasta un mes, incluido.
+     * Los meses sin registro no interrumpen la suma.
+     *
+     * @param idPlanta ID de la planta.
+     * @param anio Año de la fecha.
+     * @param mes Mes de la fecha.
+     * @return Objeto AcumuladoGeneracionDTO con los acumulados de la planta.
+     */
+    @GetMapping("/acumulado")
+    public AcumuladoGeneracionDTO findAcumuladoHasta(@RequestParam(name = "idPlanta") String idPlanta,
+                                                     @RequestParam(name = "anio") Integer anio,
+                                                     @RequestParam(name = "mes") Integer mes) {
+        return generatorService.findAcumuladoHasta(idPlanta, anio, mes);
+    }
+
+    /**
+     * Reconstruye los acumulados desde la generación mensual de cada planta y lista los registros inconsistentes.
+     *
+     * @param reparar Si es true, los registros inconsistentes se corrigen.
+     * @return Lista de registros cuyos acumulados no coinciden con la suma de los valores mensuales.
+     */
+    @PostMapping("/acumulados/verificar")
+    public List<InconsistenciaAcumuladoDTO> verificarAcumulados(@RequestParam(name = "reparar", defaultValue = "false") boolean reparar) {
+        return generatorService.verificarAcumulados(reparar);
+    }
+
+    /**
+     * Invalida la caché local de plantas, utilizado por el microservicio de integración Siesa cuando se modifica una planta.
+     *
+     * @param idsPlanta IDs de las plantas modificadas; si está vacío se invalida toda la caché.
+     * @return Respuesta vacía con estado 200.
+     */
+    @PostMapping("/plantas/invalidar_cache")
+    public ResponseEntity<Void> invalidarCachePlantas(@RequestBody List<String> idsPlanta) {
+        generatorService.invalidarCachePlantas(idsPlanta);
+        return ResponseEntity.ok().build();
+    }
 }
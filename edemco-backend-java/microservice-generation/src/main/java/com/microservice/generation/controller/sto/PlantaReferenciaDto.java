@@ -0,0 +1,19 @@
+package com.microservice.generation.controller.sto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlantaReferenciaDto {
+
+    private String idPlanta;
+    private String nombrePlanta;
+    private Long idOperador;
+    private Double valorUnidad;
+    private Boolean facturacionEspecial;
+}
@@ -0,0 +1,23 @@
+package com.microservice.generation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Acumulados de generación, ahorro y ahorro en codos de una planta hasta un mes, incluido.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AcumuladoGeneracionDTO {
+
+    private String idPlanta;
+    private Integer anio;
+    private Integer mes;
+    private Double generacionAcumulado;
+    private Double ahorroAcumulado;
+    private Double ahorroCodosAcumulado;
+}
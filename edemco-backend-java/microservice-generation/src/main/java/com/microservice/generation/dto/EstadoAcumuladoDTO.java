@@ -0,0 +1,23 @@
+package com.microservice.generation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estado acumulado de una planta al cierre del mes anterior y si ya existe el registro del mes que se calcula.
+ * Los acumulados son null cuando la planta no tiene registro en el mes anterior.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstadoAcumuladoDTO {
+
+    private String idPlanta;
+    private Double generacionAcumulado;
+    private Double ahorroAcumulado;
+    private Double ahorroCodosAcumulado;
+    private boolean existeMesActual;
+}
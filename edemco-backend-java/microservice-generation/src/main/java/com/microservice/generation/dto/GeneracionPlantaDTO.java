@@ -0,0 +1,53 @@
+package com.microservice.generation.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Datos de generación de una planta en un mes, con los valores ya formateados para el tablero.
+ * Si la planta no tiene registro en el mes solo se envían el nombre y el mensaje en generacion_actual.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GeneracionPlantaDTO {
+
+    @JsonProperty("NombrePlanta")
+    private String nombrePlanta;
+
+    @JsonProperty("id_generacion")
+    private Long idGeneracion;
+
+    @JsonProperty("generacion_actual")
+    private String generacionActual;
+
+    @JsonProperty("generacion_acumulado")
+    private String generacionAcumulado;
+
+    @JsonProperty("valor_unidad")
+    private String valorUnidad;
+
+    @JsonProperty("valor_total")
+    private String valorTotal;
+
+    @JsonProperty("diferencia_tarifa")
+    private String diferenciaTarifa;
+
+    @JsonProperty("ahorro_actual")
+    private String ahorroActual;
+
+    @JsonProperty("ahorro_acumulado")
+    private String ahorroAcumulado;
+
+    @JsonProperty("ahorro_codos_actual")
+    private String ahorroCodosActual;
+
+    @JsonProperty("ahorro_codos_acumulado")
+    private String ahorroCodosAcumulado;
+}
@@ -0,0 +1,27 @@
+package com.microservice.generation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Registro de generación cuyos acumulados guardados no coinciden con la suma de los valores mensuales de la planta.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InconsistenciaAcumuladoDTO {
+
+    private Long idGeneracion;
+    private String idPlanta;
+    private Integer anio;
+    private Integer mes;
+    private Double generacionAcumuladoGuardado;
+    private Double generacionAcumuladoEsperado;
+    private Double ahorroAcumuladoGuardado;
+    private Double ahorroAcumuladoEsperado;
+    private Double ahorroCodosAcumuladoGuardado;
+    private Double ahorroCodosAcumuladoEsperado;
+}
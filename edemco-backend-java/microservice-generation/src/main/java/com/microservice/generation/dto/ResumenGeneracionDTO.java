@@ -0,0 +1,26 @@
+package com.microservice.generation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resumen del registro de generación de una planta en un mes. Sus columnas están incluidas en el índice
+ * único uq_generacion_planta_periodo, por lo que se obtiene sin leer la tabla.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResumenGeneracionDTO {
+
+    private String idPlanta;
+    private Integer anio;
+    private Integer mes;
+    private Double generacionActual;
+    private Double generacionAcumulado;
+    private Double valorTotal;
+    private Double ahorroAcumulado;
+    private Double ahorroCodosAcumulado;
+}
@@ -9,7 +9,7 @@ import lombok.NoArgsConstructor;
 @Data
 @Entity
 @Builder
-@Table(name = "generacion")
+@Table(name = "generacion", indexes = @Index(name = "uq_generacion_planta_periodo", columnList = "id_planta, anio, mes", unique = true))
 @AllArgsConstructor
 @NoArgsConstructor
 public class Generator {
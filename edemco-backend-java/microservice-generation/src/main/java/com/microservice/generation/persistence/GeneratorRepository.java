@@ -1,5 +1,6 @@
 package com.microservice.generation.persistence;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.Query;
@@ -7,6 +8,7 @@ import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
 import com.microservice.generation.dto.GeneratorDTO;
+import com.microservice.generation.dto.ResumenGeneracionDTO;
 import com.microservice.generation.dto.ValorUnidadDTO;
 import com.microservice.generation.entities.Generator;
 
@@ -17,37 +19,18 @@ import com.microservice.generation.entities.Generator;
 public interface GeneratorRepository extends CrudRepository<Generator, Long> {
 
     /**
-     * Obtiene la generación acumulada de una planta específica para una fecha dada.
+     * Obtiene el resumen del registro de generación de una planta para una fecha dada en una sola consulta.
+     * Todas las columnas seleccionadas están en el índice uq_generacion_planta_periodo.
      *
      * @param anio Año de la fecha.
      * @param mes Mes de la fecha.
      * @param planta ID de la planta.
-     * @return Generación acumulada.
+     * @return ResumenGeneracionDTO de la planta, o null si no tiene registro en ese mes.
      */
-    @Query("SELECT g.generacionAcumulado FROM Generator g WHERE g.anio = :anio AND g.mes = :mes AND g.idPlanta = :planta")
-    Double findGeneracionAcumuladaByDateAndPlanta(Integer anio, Integer mes, String planta);
-
-    /**
-     * Obtiene el ahorro en codos acumulado de una planta específica para una fecha dada.
-     *
-     * @param anio Año de la fecha.
-     * @param mes Mes de la fecha.
-     * @param planta ID de la planta.
-     * @return Ahorro en codos acumulado.
-     */
-    @Query("SELECT g.ahorroCodosAcumulado FROM Generator g WHERE g.anio = :anio AND g.mes = :mes AND g.idPlanta = :planta")
-    Double findAhorroCodosAcumuladoByDateAndPlanta(Integer anio, Integer mes, String planta);
-
-    /**
-     * Obtiene el ahorro acumulado de una planta específica para una fecha dada.
-     *
-     * @param anio Año de la fecha.
-     * @param mes Mes de la fecha.
-     * @param planta ID de la planta.
-     * @return Ahorro acumulado.
-     */
-    @Query("SELECT g.ahorroAcumulado FROM Generator g WHERE g.anio = :anio AND g.mes = :mes AND g.idPlanta = :planta")
-    Double findAhorroAcumuladoByDateAndPlanta(Integer anio, Integer mes, String planta);
+    @Query("SELECT new com.microservice.generation.dto.ResumenGeneracionDTO(g.idPlanta, g.anio, g.mes, g.generacionActual, " +
+            "g.generacionAcumulado, g.valorTotal, g.ahorroAcumulado, g.ahorroCodosAcumulado) " +
+            "FROM Generator g WHERE g.idPlanta = :planta AND g.anio = :anio AND g.mes = :mes")
+    ResumenGeneracionDTO findResumenByDateAndPlanta(Integer anio, Integer mes, String planta);
 
     /**
      * Obtiene el último valor de unidad registrado.
@@ -57,19 +40,6 @@ public interface GeneratorRepository extends CrudRepository<Generator, Long> {
     @Query("SELECT new com.microservice.generation.dto.ValorUnidadDTO (g.anio, g.mes, g.valorUnidad) FROM Generator g ORDER BY g.idGeneracion DESC LIMIT 1")
     ValorUnidadDTO findLastValorUnidad();
 
-    /**
-     * Obtiene una lista de datos de generación para una planta específica en una fecha dada.
-     *
-     * @param anio Año de la fecha.
-     * @param mes Mes de la fecha.
-     * @param planta ID de la planta.
-     * @return Lista de objetos GeneratorDTO con los datos de generación.
-     */
-    @Query("SELECT new com.microservice.generation.dto.GeneratorDTO(g.idGeneracion, g.generacionActual, g.generacionAcumulado, g.valorUnidad, " +
-            "g.valorTotal, g.diferenciaTarifa, g.ahorroActual, g.ahorroAcumulado, g.ahorroCodosActual, g.ahorroCodosAcumulado, g.anio, g.mes, " +
-            "g.idTarifaOperador, g.idPlanta) FROM Generator g WHERE g.mes = :mes AND g.anio = :anio AND g.idPlanta = :planta")
-    List<GeneratorDTO> findGenerationsByDate(Integer anio, Integer mes, String planta);
-
     /**
      * Obtiene la generación actual de una planta específica para una fecha dada.
      *
@@ -98,4 +68,55 @@ public interface GeneratorRepository extends CrudRepository<Generator, Long> {
                 "g.valorTotal, g.diferenciaTarifa, g.ahorroActual, g.ahorroAcumulado, g.ahorroCodosActual, g.ahorroCodosAcumulado, g.anio, g.mes,"+
                 "g.idTarifaOperador, g.idPlanta) FROM Generator g WHERE g.anio = :anio AND g.mes = :mes AND g.idPlanta = :planta")
     GeneratorDTO findAllGeneracionData(Integer anio, Integer mes, String planta);
+
+    /**
+     * Obtiene en una sola consulta los registros de generación de un conjunto de plantas para dos periodos,
+     * normalmente el mes que se calcula y el mes anterior.
+     *
+     * @param anioAnterior Año del mes anterior.
+     * @param mesAnterior Mes anterior.
+     * @param anio Año del mes que se calcula.
+     * @param mes Mes que se calcula.
+     * @param plantas IDs de las plantas.
+     * @return Lista de objetos GeneratorDTO de ambos periodos.
+     */
+    @Query("SELECT new com.microservice.generation.dto.GeneratorDTO(g.idGeneracion, g.generacionActual, g.generacionAcumulado, g.valorUnidad, " +
+            "g.valorTotal, g.diferenciaTarifa, g.ahorroActual, g.ahorroAcumulado, g.ahorroCodosActual, g.ahorroCodosAcumulado, g.anio, g.mes, " +
+            "g.idTarifaOperador, g.idPlanta) FROM Generator g WHERE g.idPlanta IN :plantas " +
+            "AND ((g.anio = :anioAnterior AND g.mes = :mesAnterior) OR (g.anio = :anio AND g.mes = :mes))")
+    List<GeneratorDTO> findGenerationsByPeriodosAndPlantas(Integer anioAnterior, Integer mesAnterior, Integer anio, Integer mes,
+                                                           Collection<String> plantas);
+
+    /**
+     * Obtiene los registros de generación de una planta desde un mes dado en adelante, ordenados por año y mes.
+     *
+     * @param planta ID de la planta.
+     * @param anio Año del primer mes.
+     * @param mes Primer mes.
+     * @return Lista de entidades Generator ordenadas cronológicamente.
+     */
+    @Query("SELECT g FROM Generator g WHERE g.idPlanta = :planta AND (g.anio > :anio OR (g.anio = :anio AND g.mes >= :mes)) " +
+            "ORDER BY g.anio, g.mes, g.idGeneracion")
+    List<Generator> findByIdPlantaFromDate(String planta, Integer anio, Integer mes);
+
+    /**
+     * Obtiene todos los registros de generación en el orden en que fueron creados.
+     *
+     * @return Lista de entidades Generator ordenadas por ID.
+     */
+    List<Generator> findAllByOrderByIdGeneracionAsc();
+
+    /**
+     * Obtiene en una sola consulta los datos de generación de un conjunto de plantas para una fecha dada.
+     *
+     * @param anio Año de la fecha.
+     * @param mes Mes de la fecha.
+     * @param plantas IDs de las plantas.
+     * @return Lista de objetos GeneratorDTO con los datos de generación.
+     */
+    @Query("SELECT new com.microservice.generation.dto.GeneratorDTO(g.idGeneracion, g.generacionActual, g.generacionAcumulado, g.valorUnidad, " +
+            "g.valorTotal, g.diferenciaTarifa, g.ahorroActual, g.ahorroAcumulado, g.ahorroCodosActual, g.ahorroCodosAcumulado, g.anio, g.mes, " +
+            "g.idTarifaOperador, g.idPlanta) FROM Generator g WHERE g.anio = :anio AND g.mes = :mes AND g.idPlanta IN :plantas " +
+            "ORDER BY g.idGeneracion")
+    List<GeneratorDTO> findGenerationsByDateAndPlantas(Integer anio, Integer mes, Collection<String> plantas);
 }
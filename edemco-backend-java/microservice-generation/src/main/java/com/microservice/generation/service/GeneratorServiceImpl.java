@@ -1,27 +1,45 @@
 package com.microservice.generation.service;
 
 import java.text.DecimalFormat;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.microservice.generation.client.FacturacionEspecialClient;
-import com.microservice.generation.client.IntegracionSiesaClient;
 import com.microservice.generation.client.OperadorClient;
 import com.microservice.generation.controller.sto.OperadorDto;
+import com.microservice.generation.controller.sto.PlantaReferenciaDto;
 import com.microservice.generation.controller.sto.TarifaOperadorDto;
+import com.microservice.generation.dto.AcumuladoGeneracionDTO;
 import com.microservice.generation.dto.DatosGeneracionDTO;
 import com.microservice.generation.dto.DatosGeneracionExistentesDTO;
+import com.microservice.generation.dto.EstadoAcumuladoDTO;
+import com.microservice.generation.dto.GeneracionPlantaDTO;
 import com.microservice.generation.dto.GeneratorDTO;
+import com.microservice.generation.dto.InconsistenciaAcumuladoDTO;
 import com.microservice.generation.dto.PlantasListDTO;
+import com.microservice.generation.dto.ResumenGeneracionDTO;
 import com.microservice.generation.dto.ValorUnidadDTO;
 import com.microservice.generation.entities.Generator;
+import com.microservice.generation.persistence.GeneratorBatchRepository;
 import com.microservice.generation.persistence.GeneratorRepository;
 
 import feign.FeignException;
@@ -34,27 +52,23 @@ public class GeneratorServiceImpl implements IGeneratorService {
     private GeneratorRepository generatorRepository;
 
     @Autowired
-    private IntegracionSiesaClient integracionSiesaClient;
+    private GeneratorBatchRepository generatorBatchRepository;
 
     @Autowired
-    private OperadorClient operadorClient;
+    private LibroAcumuladosGeneracion libroAcumulados;
 
     @Autowired
-    private FacturacionEspecialClient facturacionEspecialClient;
+    private PlantaCache plantaCache;
 
-    @Override
-    public Double findGeneracionAcumuladaByDateAndPlanta(Integer anio, Integer mes, String planta) {
-        return generatorRepository.findGeneracionAcumuladaByDateAndPlanta(anio, mes, planta);
-    }
+    @Autowired
+    private OperadorClient operadorClient;
 
-    @Override
-    public Double findAhorroCodosAcumuladoByDateAndPlanta(Integer anio, Integer mes, String planta) {
-        return generatorRepository.findAhorroCodosAcumuladoByDateAndPlanta(anio, mes, planta);
-    }
+    @Autowired
+    private FacturacionEspecialClient facturacionEspecialClient;
 
     @Override
-    public Double findAhorroAcumuladoByDateAndPlanta(Integer anio, Integer mes, String planta) {
-        return generatorRepository.findAhorroAcumuladoByDateAndPlanta(anio, mes, planta);
+    public ResumenGeneracionDTO findResumenByDateAndPlanta(Integer anio, Integer mes, String planta) {
+        return generatorRepository.findResumenByDateAndPlanta(anio, mes, planta);
     }
 
     @Override
@@ -63,117 +77,362 @@ public class GeneratorServiceImpl implements IGeneratorService {
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public ResponseEntity<?> calculate(List<DatosGeneracionDTO> datosGeneracionDTOList) throws Exception {
-        for (int i = 0; i <= datosGeneracionDTOList.size() - 1; i++) {
-            int mesActual = datosGeneracionDTOList.get(i).getFechaFactura().getMonthValue();
-            Integer anio = datosGeneracionDTOList.get(i).getFechaFactura().getYear();
-            Integer mesAnterior=AjusteMes(mesActual);
-            Integer anio_registroAnterior=AjusteAnio(anio, mesActual);  
+        List<DatosGeneracionDTO> datosPorCalcular = new ArrayList<>();
+        for (DatosGeneracionDTO datosGeneracion : datosGeneracionDTOList) {
             // Obtener el nombre de la planta y verificar si está vacío o tiene valor 0
-            String nombrePlanta = datosGeneracionDTOList.get(i).getPlantName();
-            Double generacionActual = datosGeneracionDTOList.get(i).getMonthlyCumulativePowerGeneration();
+            String nombrePlanta = datosGeneracion.getPlantName();
+            Double generacionActual = datosGeneracion.getMonthlyCumulativePowerGeneration();
 
             // Si la planta está vacía o la generación es 0, continuar con el siguiente elemento
             if (nombrePlanta == null || nombrePlanta.isEmpty() || generacionActual == null || generacionActual == 0) {
                 System.out.println("Planta vacía o sin generación, se omite: " + nombrePlanta);
                 continue;
             }
-
             if (!nombrePlanta.equals("Sede Edemco")) {
-                String idPlanta = findIdPlantaByNombrePlanta(nombrePlanta);
-                if (idPlanta == null) {
-                    System.out.println("No se encontró la planta con el nombre: " + nombrePlanta);
-                    continue;
-                }
-
-                Long idOperador = findIdOperadorByIdPlanta(idPlanta);
-                TarifaOperadorDto tarifaOperadorDto = getTarifaOperadorByOperadorId(idOperador, mesActual);
-                Double tarifaOperador = tarifaOperadorDto.getTarifaOperador();
-                Double valorUnidad = findValorUnidadByIdPlanta(idPlanta);
-                Double diferencia = tarifaOperador - valorUnidad;
-
-                Double generacionAcumulada = generatorRepository.findGeneracionAcumuladaByDateAndPlanta(anio_registroAnterior, mesAnterior, idPlanta);
-                if (generacionAcumulada != null) {
-                    generacionAcumulada = generacionAcumulada + generacionActual;
-                } else {
-                    generacionAcumulada = generacionActual;
-                }
+                datosPorCalcular.add(datosGeneracion);
+            }
+        }
+        if (datosPorCalcular.isEmpty()) {
+            return ResponseEntity.ok("Datos procesados correctamente");
+        }
 
-                Double valorTotal = 0.0;
-                try {
-                    System.out.println(nombrePlanta);
-                    if (Objects.equals(checkFacturacionEspecial(idPlanta), idPlanta) && checkFacturacionEspecial(idPlanta) != null) {
-                        Float cantidadKwh = findCantidadKWhByIdPlantaAndDate(idPlanta, anio, mesActual);
-                        if (cantidadKwh==null){
-                            continue;
-                        }
-                        System.out.println(generacionActual - cantidadKwh);
-                        valorTotal = (generacionActual - cantidadKwh) * valorUnidad;
-                    } else {
-                        valorTotal = generacionActual * valorUnidad;
-                    }
-                } catch (Exception e) {
-                    throw new Exception(e.getMessage());
-                }
-                Long ValorTotalLong=Math.round(valorTotal);
-
-
-                Double ahorroActual=0.0;
-                if(Objects.equals(checkFacturacionEspecial(idPlanta), idPlanta) && checkFacturacionEspecial(idPlanta) != null){
-                    try{
-                        Float cantidadKwh = findCantidadKWhByIdPlantaAndDate(idPlanta, anio, mesActual);
-                        ahorroActual = (generacionActual - cantidadKwh) * diferencia;
-                    } catch (FeignException.NotFound e) {
-                        System.out.println("Valor de la exportacion no encontrado para la planta 505");
-                    }catch (Exception e){
-                        System.err.println("Error al calcular" + e.getMessage());
-                    }
-
-                } else {
-                ahorroActual = diferencia * generacionActual;
-                }
-                Long AhorroActualLong=Math.round(ahorroActual);
-                Double ahorroAcumulado = generatorRepository.findAhorroAcumuladoByDateAndPlanta(anio_registroAnterior, mesAnterior, idPlanta);
-                if (ahorroAcumulado != null) {
-                    ahorroAcumulado = ahorroAcumulado + AhorroActualLong.doubleValue();
-                } else {
-                    ahorroAcumulado = AhorroActualLong.doubleValue();
-                }
+        // Datos de referencia de todas las plantas de la carga en una sola llamada
+        Set<String> nombresPlanta = new LinkedHashSet<>();
+        datosPorCalcular.forEach(datos -> nombresPlanta.add(datos.getPlantName()));
+        Map<String, PlantaReferenciaDto> plantasPorNombre = plantaCache.findByNombres(nombresPlanta);
+
+        // Tarifas y cantidades de kWh exportados por periodo; una carga normalmente trae un único mes
+        Map<YearMonth, Set<PlantaReferenciaDto>> plantasPorPeriodo = new HashMap<>();
+        for (DatosGeneracionDTO datos : datosPorCalcular) {
+            PlantaReferenciaDto planta = plantasPorNombre.get(datos.getPlantName());
+            if (planta != null) {
+                plantasPorPeriodo.computeIfAbsent(datos.getFechaFactura(), k -> new LinkedHashSet<>()).add(planta);
+            }
+        }
+        Map<YearMonth, Map<Long, TarifaOperadorDto>> tarifasPorPeriodo = new HashMap<>();
+        Map<YearMonth, Map<String, Float>> cantidadesKwhPorPeriodo = new HashMap<>();
+        Map<YearMonth, Map<String, EstadoAcumuladoDTO>> estadosPorPeriodo = new HashMap<>();
+        for (Map.Entry<YearMonth, Set<PlantaReferenciaDto>> periodo : plantasPorPeriodo.entrySet()) {
+            tarifasPorPeriodo.put(periodo.getKey(), findTarifasByPlantas(periodo.getValue(), periodo.getKey().getMonthValue()));
+            cantidadesKwhPorPeriodo.put(periodo.getKey(), findCantidadesKwhByPlantas(periodo.getValue(), periodo.getKey()));
+            Set<String> idsPlanta = new HashSet<>();
+            periodo.getValue().forEach(planta -> idsPlanta.add(planta.getIdPlanta()));
+            estadosPorPeriodo.put(periodo.getKey(), findEstadosAcumulados(periodo.getKey().getYear(), periodo.getKey().getMonthValue(), idsPlanta));
+        }
 
-                Double ahorroCodosActual = generacionActual * 0.504;
-                Long AhorroCodosActualLong=Math.round(ahorroCodosActual);
-                Double ahorroCodosAcumulado = generatorRepository.findAhorroCodosAcumuladoByDateAndPlanta(anio_registroAnterior, mesAnterior, idPlanta);
-                if (ahorroCodosAcumulado != null) {
-                    ahorroCodosAcumulado = ahorroCodosAcumulado + AhorroCodosActualLong.doubleValue();
-                } else {
-                    ahorroCodosAcumulado = AhorroCodosActualLong.doubleValue();
-                }
-                if (!findGenerationsByDate(anio, mesActual, idPlanta).isEmpty()) {
+        // Los registros calculados se insertan juntos al final; se indexan por planta y periodo para que
+        // un mes posterior de la misma carga acumule sobre el mes anterior todavía no guardado
+        Map<String, Generator> generacionesNuevas = new LinkedHashMap<>();
+        for (DatosGeneracionDTO datos : datosPorCalcular) {
+            String nombrePlanta = datos.getPlantName();
+            YearMonth periodo = datos.getFechaFactura();
+            PlantaReferenciaDto planta = plantasPorNombre.get(nombrePlanta);
+            if (planta == null) {
+                System.out.println("No se encontró la planta con el nombre: " + nombrePlanta);
+                continue;
+            }
+            TarifaOperadorDto tarifaOperadorDto = tarifasPorPeriodo.get(periodo).get(planta.getIdOperador());
+            if (tarifaOperadorDto == null) {
+                System.out.println("No se encontró la tarifa del operador para la planta: " + nombrePlanta);
+                continue;
+            }
+            Float cantidadKwh = null;
+            if (Boolean.TRUE.equals(planta.getFacturacionEspecial())) {
+                cantidadKwh = cantidadesKwhPorPeriodo.get(periodo).get(planta.getIdPlanta());
+                if (cantidadKwh == null) {
                     continue;
-                } else{
-                    Generator generator =new Generator();
-                    generator.setAhorroActual(AhorroActualLong.doubleValue());
-                    generator.setAhorroAcumulado(ahorroAcumulado);
-                    generator.setAhorroCodosActual(AhorroCodosActualLong.doubleValue());
-                    generator.setAhorroCodosAcumulado(ahorroCodosAcumulado);
-                    generator.setAnio(anio);
-                    generator.setDiferenciaTarifa(diferencia);
-                    generator.setGeneracionActual(generacionActual);
-                    generator.setGeneracionAcumulado(generacionAcumulada);
-                    generator.setMes(mesActual);
-                    generator.setValorUnidad(valorUnidad);
-                    generator.setValorTotal(ValorTotalLong.doubleValue());
-                    generator.setIdTarifaOperador(tarifaOperadorDto.getIdTarifa());
-                    generator.setIdPlanta(idPlanta);
-                    generatorRepository.save(generator);
                 }
-                
             }
+            String llave = llaveGeneracion(planta.getIdPlanta(), periodo);
+            EstadoAcumuladoDTO estado = estadosPorPeriodo.get(periodo).get(planta.getIdPlanta());
+            if (generacionesNuevas.containsKey(llave) || estado.isExisteMesActual()) {
+                continue;
+            }
+            Generator registroAnterior = generacionesNuevas.get(llaveGeneracion(planta.getIdPlanta(), periodo.minusMonths(1)));
+            if (registroAnterior != null) {
+                estado = EstadoAcumuladoDTO.builder()
+                        .idPlanta(planta.getIdPlanta())
+                        .generacionAcumulado(registroAnterior.getGeneracionAcumulado())
+                        .ahorroAcumulado(registroAnterior.getAhorroAcumulado())
+                        .ahorroCodosAcumulado(registroAnterior.getAhorroCodosAcumulado())
+                        .build();
+            } else if (estado.getGeneracionAcumulado() == null) {
+                estado = estadoDesdeLibro(planta.getIdPlanta(), periodo.minusMonths(1), generacionesNuevas.values());
+            }
+            Generator generator = calcularGeneracion(planta, tarifaOperadorDto, periodo,
+                    datos.getMonthlyCumulativePowerGeneration(), cantidadKwh, estado);
+            generacionesNuevas.put(llave, generator);
+        }
+        // El libro solo recibe los registros nuevos cuando la inserción y el recálculo se confirman juntos
+        registrarEnLibroAlConfirmar(new ArrayList<>(generacionesNuevas.values()));
+        long tiempoInsercion;
+        try {
+            tiempoInsercion = generatorBatchRepository.insertAll(new ArrayList<>(generacionesNuevas.values()));
+        } catch (DataIntegrityViolationException e) {
+            // El índice único (id_planta, anio, mes) rechazó un mes que otra carga guardó al mismo tiempo
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            System.out.println("La generación de alguna planta ya estaba registrada para el periodo: " + e.getMostSpecificCause().getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("La generación de alguna planta ya estaba registrada para el periodo, no se guardó ningún registro");
         }
+        System.out.println("Registros de generación insertados: " + generacionesNuevas.size() + " en " + tiempoInsercion + " ms");
+        recalcularAcumuladosTrasMesesAnteriores(generacionesNuevas.values());
         return ResponseEntity.ok("Datos procesados correctamente");
     }
 
+    /**
+     * Cuando una carga registra un mes anterior a otros ya guardados de la misma planta, los acumulados guardados
+     * de esos meses posteriores quedan desactualizados; aquí se recalculan desde el primer mes insertado de cada
+     * planta. Solo se consulta la base de datos para las plantas que el libro indica con meses posteriores; el
+     * libro todavía no incluye los registros de la carga, que se leen junto con los demás dentro de la transacción.
+     */
+    private void recalcularAcumuladosTrasMesesAnteriores(Collection<Generator> generacionesInsertadas) {
+        Map<String, YearMonth> primerMesPorPlanta = new HashMap<>();
+        for (Generator generator : generacionesInsertadas) {
+            primerMesPorPlanta.merge(generator.getIdPlanta(), YearMonth.of(generator.getAnio(), generator.getMes()),
+                    (actual, nuevo) -> nuevo.isBefore(actual) ? nuevo : actual);
+        }
+        for (Map.Entry<String, YearMonth> planta : primerMesPorPlanta.entrySet()) {
+            YearMonth primerMes = planta.getValue();
+            if (!libroAcumulados.tieneMesesPosteriores(planta.getKey(), primerMes)) {
+                continue;
+            }
+            List<Generator> registrosPlanta = generatorRepository.findByIdPlantaFromDate(planta.getKey(), primerMes.getYear(), primerMes.getMonthValue());
+            if (registrosPlanta.isEmpty()) {
+                continue;
+            }
+            List<Generator> registrosModificados = recalcularAcumuladosPosteriores(registrosPlanta.get(0), registrosPlanta);
+            // El primer registro ya se insertó con sus acumulados correctos
+            registrosModificados.remove(0);
+            if (!registrosModificados.isEmpty()) {
+                generatorRepository.saveAll(registrosModificados);
+            }
+            System.out.println("Acumulados recalculados para la planta " + planta.getKey() + " desde " + primerMes + ": " + registrosModificados.size());
+        }
+    }
+
+    /**
+     * Calcula el registro de generación de una planta para un periodo a partir de los datos de referencia ya cargados.
+     *
+     * @param planta Datos de referencia de la planta.
+     * @param tarifaOperadorDto Tarifa del operador de la planta para el mes.
+     * @param periodo Año y mes de la generación.
+     * @param generacionActual Generación del mes.
+     * @param cantidadKwh Cantidad de kWh exportados si la planta es de facturación especial, o null en caso contrario.
+     * @param estadoAnterior Acumulados de la planta al cierre del mes anterior.
+     * @return Entidad Generator lista para guardar.
+     */
+    private Generator calcularGeneracion(PlantaReferenciaDto planta, TarifaOperadorDto tarifaOperadorDto, YearMonth periodo,
+                                         Double generacionActual, Float cantidadKwh, EstadoAcumuladoDTO estadoAnterior) {
+        String idPlanta = planta.getIdPlanta();
+        Double valorUnidad = planta.getValorUnidad();
+        Double diferencia = tarifaOperadorDto.getTarifaOperador() - valorUnidad;
+
+        // En facturación especial solo se liquida la generación que no se exportó
+        Double generacionFacturable = cantidadKwh != null ? generacionActual - cantidadKwh : generacionActual;
+        Long ValorTotalLong = Math.round(generacionFacturable * valorUnidad);
+        Long AhorroActualLong = Math.round(generacionFacturable * diferencia);
+        Long AhorroCodosActualLong = Math.round(generacionActual * 0.504);
+
+        Generator generator = new Generator();
+        generator.setAhorroActual(AhorroActualLong.doubleValue());
+        generator.setAhorroAcumulado(sumar(estadoAnterior.getAhorroAcumulado(), AhorroActualLong.doubleValue()));
+        generator.setAhorroCodosActual(AhorroCodosActualLong.doubleValue());
+        generator.setAhorroCodosAcumulado(sumar(estadoAnterior.getAhorroCodosAcumulado(), AhorroCodosActualLong.doubleValue()));
+        generator.setAnio(periodo.getYear());
+        generator.setDiferenciaTarifa(diferencia);
+        generator.setGeneracionActual(generacionActual);
+        generator.setGeneracionAcumulado(sumar(estadoAnterior.getGeneracionAcumulado(), generacionActual));
+        generator.setMes(periodo.getMonthValue());
+        generator.setValorUnidad(valorUnidad);
+        generator.setValorTotal(ValorTotalLong.doubleValue());
+        generator.setIdTarifaOperador(tarifaOperadorDto.getIdTarifa());
+        generator.setIdPlanta(idPlanta);
+        return generator;
+    }
+
+    /**
+     * Obtiene en una sola llamada las tarifas del mes de los operadores de un conjunto de plantas.
+     *
+     * @return Mapa de tarifas por ID de operador.
+     */
+    private Map<Long, TarifaOperadorDto> findTarifasByPlantas(Set<PlantaReferenciaDto> plantas, Integer mes) {
+        Set<Long> idsOperador = new HashSet<>();
+        plantas.forEach(planta -> {
+            if (planta.getIdOperador() != null) {
+                idsOperador.add(planta.getIdOperador());
+            }
+        });
+        Map<Long, TarifaOperadorDto> tarifas = new HashMap<>();
+        if (!idsOperador.isEmpty()) {
+            for (TarifaOperadorDto tarifa : operadorClient.findTarifasOperadorByIdsOperadorAndMonth(new ArrayList<>(idsOperador), mes)) {
+                tarifas.put(tarifa.getIdOperador(), tarifa);
+            }
+        }
+        return tarifas;
+    }
+
+    /**
+     * Obtiene en una sola llamada la cantidad de kWh exportados del periodo de las plantas de facturación especial.
+     *
+     * @return Mapa de cantidades de kWh por ID de planta.
+     */
+    private Map<String, Float> findCantidadesKwhByPlantas(Set<PlantaReferenciaDto> plantas, YearMonth periodo) {
+        List<String> idsPlantaEspecial = new ArrayList<>();
+        plantas.forEach(planta -> {
+            if (Boolean.TRUE.equals(planta.getFacturacionEspecial())) {
+                idsPlantaEspecial.add(planta.getIdPlanta());
+            }
+        });
+        if (idsPlantaEspecial.isEmpty()) {
+            return new HashMap<>();
+        }
+        return facturacionEspecialClient.findCantidadesKWhByIdsPlantaAndDate(idsPlantaEspecial, periodo.getYear(), periodo.getMonthValue());
+    }
+
+    /**
+     * Carga en una sola consulta, para un conjunto de plantas, los acumulados del mes anterior al indicado
+     * y si ya existe el registro del mes indicado.
+     *
+     * @param anio Año del mes que se calcula.
+     * @param mes Mes que se calcula.
+     * @param idsPlanta IDs de las plantas.
+     * @return Mapa de EstadoAcumuladoDTO por ID de planta, con una entrada por cada planta solicitada.
+     */
     @Override
+    public Map<String, EstadoAcumuladoDTO> findEstadosAcumulados(Integer anio, Integer mes, Collection<String> idsPlanta) {
+        Integer mesAnterior = AjusteMes(mes);
+        Integer anio_registroAnterior = AjusteAnio(anio, mes);
+        Map<String, EstadoAcumuladoDTO> estados = new HashMap<>();
+        for (String idPlanta : idsPlanta) {
+            estados.put(idPlanta, EstadoAcumuladoDTO.builder().idPlanta(idPlanta).build());
+        }
+        if (idsPlanta.isEmpty()) {
+            return estados;
+        }
+        for (GeneratorDTO registro : generatorRepository.findGenerationsByPeriodosAndPlantas(anio_registroAnterior, mesAnterior, anio, mes, idsPlanta)) {
+            EstadoAcumuladoDTO estado = estados.get(registro.getIdPlanta());
+            if (estado == null) {
+                continue;
+            }
+            if (Objects.equals(registro.getAnio(), anio) && Objects.equals(registro.getMes(), mes)) {
+                estado.setExisteMesActual(true);
+            } else {
+                estado.setGeneracionAcumulado(registro.getGeneracionAcumulado());
+                estado.setAhorroAcumulado(registro.getAhorroAcumulado());
+                estado.setAhorroCodosAcumulado(registro.getAhorroCodosAcumulado());
+            }
+        }
+        return estados;
+    }
+
+    /**
+     * Obtiene del libro de acumulados los totales de una planta hasta un mes, para los casos en que no existe
+     * el registro de ese mes y los acumulados deben continuar desde el último mes registrado.
+     */
+    private EstadoAcumuladoDTO estadoDesdeLibro(String idPlanta, YearMonth periodo) {
+        return estadoDesdeLibro(idPlanta, periodo, List.of());
+    }
+
+    /**
+     * Igual que {@link #estadoDesdeLibro(String, YearMonth)}, sumando los valores de los registros de la carga
+     * en curso que la planta tiene hasta ese mes, porque el libro solo los incluye cuando se confirman.
+     */
+    private EstadoAcumuladoDTO estadoDesdeLibro(String idPlanta, YearMonth periodo, Collection<Generator> generacionesNuevas) {
+        AcumuladoGeneracionDTO acumulado = libroAcumulados.findAcumuladoHasta(idPlanta, periodo);
+        Double generacionAcumulado = acumulado.getGeneracionAcumulado();
+        Double ahorroAcumulado = acumulado.getAhorroAcumulado();
+        Double ahorroCodosAcumulado = acumulado.getAhorroCodosAcumulado();
+        for (Generator nueva : generacionesNuevas) {
+            if (idPlanta.equals(nueva.getIdPlanta()) && !YearMonth.of(nueva.getAnio(), nueva.getMes()).isAfter(periodo)) {
+                generacionAcumulado = sumar(generacionAcumulado, nueva.getGeneracionActual());
+                ahorroAcumulado = sumar(ahorroAcumulado, nueva.getAhorroActual());
+                ahorroCodosAcumulado = sumar(ahorroCodosAcumulado, nueva.getAhorroCodosActual());
+            }
+        }
+        return EstadoAcumuladoDTO.builder()
+                .idPlanta(idPlanta)
+                .generacionAcumulado(generacionAcumulado)
+                .ahorroAcumulado(ahorroAcumulado)
+                .ahorroCodosAcumulado(ahorroCodosAcumulado)
+                .build();
+    }
+
+    @Override
+    public void invalidarCachePlantas(List<String> idsPlanta) {
+        plantaCache.invalidar(idsPlanta);
+    }
+
+    @Override
+    public AcumuladoGeneracionDTO findAcumuladoHasta(String idPlanta, Integer anio, Integer mes) {
+        return libroAcumulados.findAcumuladoHasta(idPlanta, YearMonth.of(anio, mes));
+    }
+
+    /**
+     * Reconstruye el libro de acumulados a partir de los valores mensuales guardados en la tabla generacion y
+     * compara los acumulados guardados en cada registro con las sumas reconstruidas.
+     *
+     * @param reparar Si es true, los registros inconsistentes se corrigen con las sumas reconstruidas.
+     * @return Lista de registros cuyos acumulados guardados no coinciden con las sumas reconstruidas.
+     */
+    @Override
+    @Transactional
+    public List<InconsistenciaAcumuladoDTO> verificarAcumulados(boolean reparar) {
+        List<Generator> registros = generatorRepository.findAllByOrderByIdGeneracionAsc();
+        libroAcumulados.reconstruir(registros);
+        List<InconsistenciaAcumuladoDTO> inconsistencias = new ArrayList<>();
+        List<Generator> registrosReparados = new ArrayList<>();
+        for (Generator registro : registros) {
+            if (registro.getIdPlanta() == null || registro.getAnio() == null || registro.getMes() == null) {
+                continue;
+            }
+            AcumuladoGeneracionDTO esperado = libroAcumulados.findAcumuladoHasta(registro.getIdPlanta(), YearMonth.of(registro.getAnio(), registro.getMes()));
+            if (coincide(registro.getGeneracionAcumulado(), esperado.getGeneracionAcumulado())
+                    && coincide(registro.getAhorroAcumulado(), esperado.getAhorroAcumulado())
+                    && coincide(registro.getAhorroCodosAcumulado(), esperado.getAhorroCodosAcumulado())) {
+                continue;
+            }
+            inconsistencias.add(InconsistenciaAcumuladoDTO.builder()
+                    .idGeneracion(registro.getIdGeneracion())
+                    .idPlanta(registro.getIdPlanta())
+                    .anio(registro.getAnio())
+                    .mes(registro.getMes())
+                    .generacionAcumuladoGuardado(registro.getGeneracionAcumulado())
+                    .generacionAcumuladoEsperado(esperado.getGeneracionAcumulado())
+                    .ahorroAcumuladoGuardado(registro.getAhorroAcumulado())
+                    .ahorroAcumuladoEsperado(esperado.getAhorroAcumulado())
+                    .ahorroCodosAcumuladoGuardado(registro.getAhorroCodosAcumulado())
+                    .ahorroCodosAcumuladoEsperado(esperado.getAhorroCodosAcumulado())
+                    .build());
+            if (reparar) {
+                registro.setGeneracionAcumulado(esperado.getGeneracionAcumulado());
+                registro.setAhorroAcumulado(esperado.getAhorroAcumulado());
+                registro.setAhorroCodosAcumulado(esperado.getAhorroCodosAcumulado());
+                registrosReparados.add(registro);
+            }
+        }
+        if (!registrosReparados.isEmpty()) {
+            generatorRepository.saveAll(registrosReparados);
+        }
+        System.out.println("Registros de generación con acumulados inconsistentes: " + inconsistencias.size());
+        return inconsistencias;
+    }
+
+    private static boolean coincide(Double guardado, Double esperado) {
+        return guardado != null && Math.abs(guardado - esperado) < 0.01;
+    }
+
+    private static String llaveGeneracion(String idPlanta, YearMonth periodo) {
+        return idPlanta + "|" + periodo;
+    }
+
+    private static Double sumar(Double acumuladoAnterior, Double valorActual) {
+        return acumuladoAnterior != null ? acumuladoAnterior + valorActual : valorActual;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
     public ResponseEntity<?> modifyGeneration(DatosGeneracionExistentesDTO datosGeneracionExistentesDTO) throws Exception {
         Long idGeneracion=datosGeneracionExistentesDTO.getIdGeneracion();
         Double valorGeneracion =datosGeneracionExistentesDTO.getValorGeneracion();
@@ -182,20 +441,17 @@ public class GeneratorServiceImpl implements IGeneratorService {
         String nombrePlanta= findNombrePlantaByIdPlanta(idPlanta);
         Integer mesActual=registroGeneracion.getMes();
         Integer anio=registroGeneracion.getAnio();
-        Integer mesAnterior=AjusteMes(mesActual);
-        Integer anio_registroAnterior=AjusteAnio(anio, mesActual);
+        EstadoAcumuladoDTO estadoAnterior = findEstadosAcumulados(anio, mesActual, List.of(idPlanta)).get(idPlanta);
+        if (estadoAnterior.getGeneracionAcumulado() == null) {
+            estadoAnterior = estadoDesdeLibro(idPlanta, YearMonth.of(anio, mesActual).minusMonths(1));
+        }
         Long idOperador = findIdOperadorByIdPlanta(idPlanta);
         TarifaOperadorDto tarifaOperadorDto = getTarifaOperadorByOperadorId(idOperador, mesActual);
         Double tarifaOperador = tarifaOperadorDto.getTarifaOperador();
         Double valorUnidad = findValorUnidadByIdPlanta(idPlanta);
 
         Double diferencia = tarifaOperador - valorUnidad;
-        Double generacionAcumulada = generatorRepository.findGeneracionAcumuladaByDateAndPlanta(anio_registroAnterior, mesAnterior, idPlanta);
-        if (generacionAcumulada != null) {
-                    generacionAcumulada = generacionAcumulada + valorGeneracion;
-                } else {
-                    generacionAcumulada = valorGeneracion;
-                }
+        Double generacionAcumulada = sumar(estadoAnterior.getGeneracionAcumulado(), valorGeneracion);
         Double valorTotal = 0.0;
         try {
             System.out.println(nombrePlanta);
@@ -229,21 +485,11 @@ public class GeneratorServiceImpl implements IGeneratorService {
         }
         Long AhorroActualLong=Math.round(ahorroActual);
 
-        Double ahorroAcumulado = generatorRepository.findAhorroAcumuladoByDateAndPlanta(anio_registroAnterior,mesAnterior, idPlanta);
-        if (ahorroAcumulado != null) {
-            ahorroAcumulado = ahorroAcumulado + AhorroActualLong.doubleValue();
-        } else {
-            ahorroAcumulado = AhorroActualLong.doubleValue();
-        }
+        Double ahorroAcumulado = sumar(estadoAnterior.getAhorroAcumulado(), AhorroActualLong.doubleValue());
 
         Double ahorroCodosActual = valorGeneracion * 0.504;
         Long AhorroCodosLong = Math.round(ahorroCodosActual);
-        Double ahorroCodosAcumulado = generatorRepository.findAhorroCodosAcumuladoByDateAndPlanta(anio_registroAnterior,mesAnterior, idPlanta);
-        if (ahorroCodosAcumulado != null) {
-            ahorroCodosAcumulado = ahorroCodosAcumulado + AhorroCodosLong.doubleValue();
-        } else {
-            ahorroCodosAcumulado = AhorroCodosLong.doubleValue();
-        }
+        Double ahorroCodosAcumulado = sumar(estadoAnterior.getAhorroCodosAcumulado(), AhorroCodosLong.doubleValue());
         System.out.println("VALOR TOTAL?:"+ValorTotalLong.doubleValue());
         registroGeneracion.setAhorroActual(AhorroActualLong.doubleValue());
         registroGeneracion.setAhorroAcumulado(ahorroAcumulado);
@@ -253,40 +499,120 @@ public class GeneratorServiceImpl implements IGeneratorService {
         registroGeneracion.setGeneracionActual(valorGeneracion);
         registroGeneracion.setGeneracionAcumulado(generacionAcumulada);
         registroGeneracion.setValorTotal(ValorTotalLong.doubleValue());
-        generatorRepository.save(registroGeneracion);
+        // Los acumulados de los meses posteriores dependen del mes corregido y se recalculan en la misma transacción
+        List<Generator> registrosPlanta = generatorRepository.findByIdPlantaFromDate(idPlanta, anio, mesActual);
+        List<Generator> registrosModificados = recalcularAcumuladosPosteriores(registroGeneracion, registrosPlanta);
+        generatorRepository.saveAll(registrosModificados);
+        registrarEnLibroAlConfirmar(registrosModificados);
+        System.out.println("Registros de generación actualizados para la planta " + idPlanta + ": " + registrosModificados.size());
         return ResponseEntity.ok("Buena url");
     }
 
+    /**
+     * Registra los valores mensuales en el libro de acumulados solo cuando la transacción en curso se confirma,
+     * para que el libro nunca tenga valores que no llegaron a la base de datos. Si la transacción se revierte
+     * el libro se descarta, por si se cargó dentro de ella con datos sin confirmar.
+     */
+    private void registrarEnLibroAlConfirmar(List<Generator> registros) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                registros.forEach(libroAcumulados::registrar);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    libroAcumulados.invalidar();
+                }
+            }
+        });
+    }
+
+    /**
+     * Recalcula en un solo recorrido los acumulados de generación, ahorro y ahorro en codos de los meses
+     * posteriores a un registro corregido: cada mes acumula sobre el registro anterior de la planta,
+     * aunque haya meses sin registro entre ambos.
+     *
+     * @param registroCorregido Registro corregido, con sus acumulados ya actualizados.
+     * @param registrosPlanta Registros de la planta desde el mes corregido, ordenados por año y mes.
+     * @return Registros que deben guardarse: el corregido y los posteriores cuyos acumulados cambiaron.
+     */
+    private List<Generator> recalcularAcumuladosPosteriores(Generator registroCorregido, List<Generator> registrosPlanta) {
+        List<Generator> registrosModificados = new ArrayList<>();
+        registrosModificados.add(registroCorregido);
+        Generator anterior = registroCorregido;
+        for (Generator registro : registrosPlanta) {
+            if (Objects.equals(registro.getIdGeneracion(), registroCorregido.getIdGeneracion())) {
+                continue;
+            }
+            YearMonth periodoAnterior = YearMonth.of(anterior.getAnio(), anterior.getMes());
+            YearMonth periodo = YearMonth.of(registro.getAnio(), registro.getMes());
+            if (!periodo.isAfter(periodoAnterior)) {
+                continue;
+            }
+            Double generacionAcumulada = sumar(anterior.getGeneracionAcumulado(), registro.getGeneracionActual());
+            Double ahorroAcumulado = sumar(anterior.getAhorroAcumulado(), registro.getAhorroActual());
+            Double ahorroCodosAcumulado = sumar(anterior.getAhorroCodosAcumulado(), registro.getAhorroCodosActual());
+            if (!Objects.equals(generacionAcumulada, registro.getGeneracionAcumulado())
+                    || !Objects.equals(ahorroAcumulado, registro.getAhorroAcumulado())
+                    || !Objects.equals(ahorroCodosAcumulado, registro.getAhorroCodosAcumulado())) {
+                registro.setGeneracionAcumulado(generacionAcumulada);
+                registro.setAhorroAcumulado(ahorroAcumulado);
+                registro.setAhorroCodosAcumulado(ahorroCodosAcumulado);
+                registrosModificados.add(registro);
+            }
+            anterior = registro;
+        }
+        return registrosModificados;
+    }
+
     @Override
     public ResponseEntity<?> findAllGeneration(List<PlantasListDTO> plantasListDTOsList) throws Exception {
         try {
-        List<Map<String,Object>> informacion=new ArrayList<>();
-        for (int i=0;i<plantasListDTOsList.size();i++){
-            PlantasListDTO plantaActual=plantasListDTOsList.get(i);
-            String id_planta=plantaActual.getId_planta();
-            Integer mes=plantaActual.getMes();
-            Integer anio=plantaActual.getAnio();
-            List<GeneratorDTO> generacionPlanta=findGenerationsByDate(anio,mes,id_planta);
-            Map<String,Object> registro=new HashMap<>();
-            DecimalFormat df=new DecimalFormat("#.##");
-            String NombrePlanta=findNombrePlantaByIdPlanta(id_planta);
-            if(generacionPlanta.isEmpty()|| generacionPlanta==null){
-                registro.put("NombrePlanta", NombrePlanta);
-                registro.put("generacion_actual", "Falta paso de facturación especial, Información no encontrada");
-                informacion.add(registro);
-            }else{
-                registro.put("NombrePlanta", NombrePlanta);
-                registro.put("id_generacion", generacionPlanta.get(0).getIdGeneracion());
-                registro.put("generacion_actual", df.format(generacionPlanta.get(0).getGeneracionActual()));
-                registro.put("generacion_acumulado", df.format(generacionPlanta.get(0).getGeneracionAcumulado()));
-                registro.put("valor_unidad", df.format(generacionPlanta.get(0).getValorUnidad()));
-                registro.put("valor_total", df.format(generacionPlanta.get(0).getValorTotal()));
-                registro.put("diferencia_tarifa", df.format(generacionPlanta.get(0).getDiferenciaTarifa()));
-                registro.put("ahorro_actual", df.format(generacionPlanta.get(0).getAhorroActual()));
-                registro.put("ahorro_acumulado", df.format(generacionPlanta.get(0).getAhorroAcumulado()));
-                registro.put("ahorro_codos_actual", df.format(generacionPlanta.get(0).getAhorroCodosActual()));
-                registro.put("ahorro_codos_acumulado", df.format(generacionPlanta.get(0).getAhorroCodosAcumulado()));
-                informacion.add(registro);
+        // Una consulta por periodo solicitado; el tablero pide todas las plantas de un mismo mes
+        Map<YearMonth, Set<String>> plantasPorPeriodo = new LinkedHashMap<>();
+        for (PlantasListDTO planta : plantasListDTOsList) {
+            plantasPorPeriodo.computeIfAbsent(YearMonth.of(planta.getAnio(), planta.getMes()), k -> new HashSet<>()).add(planta.getId_planta());
+        }
+        Map<String, GeneratorDTO> generacionPorPlantaYPeriodo = new HashMap<>();
+        for (Map.Entry<YearMonth, Set<String>> periodo : plantasPorPeriodo.entrySet()) {
+            for (GeneratorDTO generacion : generatorRepository.findGenerationsByDateAndPlantas(periodo.getKey().getYear(), periodo.getKey().getMonthValue(), periodo.getValue())) {
+                // Si hay varios registros del mismo mes se conserva el primero, como en la consulta por planta
+                generacionPorPlantaYPeriodo.putIfAbsent(llaveGeneracion(generacion.getIdPlanta(), periodo.getKey()), generacion);
+            }
+        }
+
+        Set<String> idsPlanta = new HashSet<>();
+        plantasPorPeriodo.values().forEach(idsPlanta::addAll);
+        Map<String, PlantaReferenciaDto> plantas = plantaCache.findByIds(idsPlanta);
+
+        DecimalFormat df = new DecimalFormat("#.##");
+        List<GeneracionPlantaDTO> informacion = new ArrayList<>();
+        for (PlantasListDTO plantaActual : plantasListDTOsList) {
+            String id_planta = plantaActual.getId_planta();
+            PlantaReferenciaDto planta = plantas.get(id_planta);
+            String NombrePlanta = planta != null ? planta.getNombrePlanta() : null;
+            GeneratorDTO generacion = generacionPorPlantaYPeriodo.get(llaveGeneracion(id_planta, YearMonth.of(plantaActual.getAnio(), plantaActual.getMes())));
+            if (generacion == null) {
+                informacion.add(GeneracionPlantaDTO.builder()
+                        .nombrePlanta(NombrePlanta)
+                        .generacionActual("Falta paso de facturación especial, Información no encontrada")
+                        .build());
+            } else {
+                informacion.add(GeneracionPlantaDTO.builder()
+                        .nombrePlanta(NombrePlanta)
+                        .idGeneracion(generacion.getIdGeneracion())
+                        .generacionActual(df.format(generacion.getGeneracionActual()))
+                        .generacionAcumulado(df.format(generacion.getGeneracionAcumulado()))
+                        .valorUnidad(df.format(generacion.getValorUnidad()))
+                        .valorTotal(df.format(generacion.getValorTotal()))
+                        .diferenciaTarifa(df.format(generacion.getDiferenciaTarifa()))
+                        .ahorroActual(df.format(generacion.getAhorroActual()))
+                        .ahorroAcumulado(df.format(generacion.getAhorroAcumulado()))
+                        .ahorroCodosActual(df.format(generacion.getAhorroCodosActual()))
+                        .ahorroCodosAcumulado(df.format(generacion.getAhorroCodosAcumulado()))
+                        .build());
             }
         }
         return ResponseEntity.ok(informacion);
@@ -317,18 +643,16 @@ public class GeneratorServiceImpl implements IGeneratorService {
         return List.of();
     }
 
-    public List<GeneratorDTO> findGenerationsByDate(Integer anio, Integer mes, String planta) {
-        return generatorRepository.findGenerationsByDate(anio, mes, planta);
-    }
-
     @Override
     public String findIdPlantaByNombrePlanta(String nombrePlanta) {
-        return integracionSiesaClient.findIdPlantaByNombrePlanta(nombrePlanta);
+        PlantaReferenciaDto planta = plantaCache.findByNombre(nombrePlanta);
+        return planta != null ? planta.getIdPlanta() : null;
     }
 
     @Override
     public String findNombrePlantaByIdPlanta(String idPlanta) {
-        return integracionSiesaClient.findNombrePlantaByIdPlanta(idPlanta);
+        PlantaReferenciaDto planta = plantaCache.findById(idPlanta);
+        return planta != null ? planta.getNombrePlanta() : null;
     }
 
     @Override
@@ -338,7 +662,8 @@ public class GeneratorServiceImpl implements IGeneratorService {
 
     @Override
     public Long findIdOperadorByIdPlanta(String idPlanta) {
-        return integracionSiesaClient.findIdOperadorByIdPlanta(idPlanta);
+        PlantaReferenciaDto planta = plantaCache.findById(idPlanta);
+        return planta != null ? planta.getIdOperador() : null;
     }
 
     @Override
@@ -353,7 +678,8 @@ public class GeneratorServiceImpl implements IGeneratorService {
 
     @Override
     public Double findValorUnidadByIdPlanta(String idPlanta) {
-        return integracionSiesaClient.findValorUnidadByIdPlanta(idPlanta);
+        PlantaReferenciaDto planta = plantaCache.findById(idPlanta);
+        return planta != null ? planta.getValorUnidad() : null;
     }
 
     @Override
@@ -363,7 +689,8 @@ public class GeneratorServiceImpl implements IGeneratorService {
 
     @Override
     public String checkFacturacionEspecial(String idPlanta) throws Exception {
-        return integracionSiesaClient.checkFacturacionEspecial(idPlanta);
+        PlantaReferenciaDto planta = plantaCache.findById(idPlanta);
+        return planta != null && Boolean.TRUE.equals(planta.getFacturacionEspecial()) ? planta.getIdPlanta() : null;
     }
 
     @Override
@@ -1,15 +1,21 @@
 package com.microservice.generation.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.http.ResponseEntity;
 
 import com.microservice.generation.controller.sto.OperadorDto;
 import com.microservice.generation.controller.sto.TarifaOperadorDto;
+import com.microservice.generation.dto.AcumuladoGeneracionDTO;
 import com.microservice.generation.dto.DatosGeneracionDTO;
 import com.microservice.generation.dto.DatosGeneracionExistentesDTO;
+import com.microservice.generation.dto.EstadoAcumuladoDTO;
 import com.microservice.generation.dto.GeneratorDTO;
+import com.microservice.generation.dto.InconsistenciaAcumuladoDTO;
 import com.microservice.generation.dto.PlantasListDTO;
+import com.microservice.generation.dto.ResumenGeneracionDTO;
 import com.microservice.generation.dto.ValorUnidadDTO;
 import com.microservice.generation.entities.Generator;
 
@@ -19,34 +25,14 @@ import com.microservice.generation.entities.Generator;
 public interface IGeneratorService {
 
     /**
-     * Obtiene la generación acumulada de una planta específica para una fecha dada.
+     * Obtiene en una sola consulta la generación actual, el valor total y los acumulados de una planta para una fecha dada.
      *
      * @param anio Año de la fecha.
      * @param mes Mes de la fecha.
      * @param planta ID de la planta.
-     * @return Generación acumulada.
+     * @return ResumenGeneracionDTO de la planta, o null si no tiene registro en ese mes.
      */
-    Double findGeneracionAcumuladaByDateAndPlanta(Integer anio, Integer mes, String planta);
-
-    /**
-     * Obtiene el ahorro en codos acumulado de una planta específica para una fecha dada.
-     *
-     * @param anio Año de la fecha.
-     * @param mes Mes de la fecha.
-     * @param planta ID de la planta.
-     * @return Ahorro en codos acumulado.
-     */
-    Double findAhorroCodosAcumuladoByDateAndPlanta(Integer anio, Integer mes, String planta);
-
-    /**
-     * Obtiene el ahorro acumulado de una planta específica para una fecha dada.
-     *
-     * @param anio Año de la fecha.
-     * @param mes Mes de la fecha.
-     * @param planta ID de la planta.
-     * @return Ahorro acumulado.
-     */
-    Double findAhorroAcumuladoByDateAndPlanta(Integer anio, Integer mes, String planta);
+    ResumenGeneracionDTO findResumenByDateAndPlanta(Integer anio, Integer mes, String planta);
 
     /**
      * Procesa una lista de datos de generación y realiza cálculos relacionados.
@@ -176,6 +162,42 @@ public interface IGeneratorService {
      */
     Float findCantidadKWhByIdPlantaAndDate(String idPlanta, Integer anio, Integer mes) throws Exception;
 
+    /**
+     * Obtiene en una sola consulta los acumulados del mes anterior y la existencia del registro del mes indicado
+     * para un conjunto de plantas.
+     *
+     * @param anio Año del mes que se calcula.
+     * @param mes Mes que se calcula.
+     * @param idsPlanta IDs de las plantas.
+     * @return Mapa de EstadoAcumuladoDTO por ID de planta.
+     */
+    Map<String, EstadoAcumuladoDTO> findEstadosAcumulados(Integer anio, Integer mes, Collection<String> idsPlanta);
+
+    /**
+     * Obtiene del libro de acumulados la generación, el ahorro y el ahorro en codos acumulados de una planta hasta un mes, incluido.
+     *
+     * @param idPlanta ID de la planta.
+     * @param anio Año de la fecha.
+     * @param mes Mes de la fecha.
+     * @return Objeto AcumuladoGeneracionDTO con los acumulados.
+     */
+    AcumuladoGeneracionDTO findAcumuladoHasta(String idPlanta, Integer anio, Integer mes);
+
+    /**
+     * Reconstruye el libro de acumulados desde los valores mensuales y verifica los acumulados guardados.
+     *
+     * @param reparar Si es true, corrige los registros inconsistentes.
+     * @return Lista de registros con acumulados inconsistentes.
+     */
+    List<InconsistenciaAcumuladoDTO> verificarAcumulados(boolean reparar);
+
+    /**
+     * Descarta de la caché local los datos de referencia de las plantas indicadas.
+     *
+     * @param idsPlanta IDs de las plantas modificadas; si está vacío se descarta toda la caché.
+     */
+    void invalidarCachePlantas(List<String> idsPlanta);
+
     ResponseEntity<?> modifyGeneration(DatosGeneracionExistentesDTO datosGeneracionExistentesDTO) throws Exception;
 
     ResponseEntity<?> findAllGeneration(List<PlantasListDTO> plantasListDTOsList) throws Exception;
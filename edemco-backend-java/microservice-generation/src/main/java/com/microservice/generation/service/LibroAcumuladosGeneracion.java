@@ -0,0 +1,177 @@
+package com.microservice.generation.service;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.microservice.generation.dto.AcumuladoGeneracionDTO;
+import com.microservice.generation.entities.Generator;
+import com.microservice.generation.persistence.GeneratorRepository;
+
+/**
+ * Libro en memoria con las sumas acumuladas (prefijos) de generación, ahorro y ahorro en codos de cada planta.
+ * Para cada planta se guardan los valores mensuales (generacionActual, ahorroActual, ahorroCodosActual) y un
+ * arreglo de prefijos indexado por mes desde el primer registro, de modo que el acumulado hasta cualquier mes
+ * se responde en O(1). Los meses sin registro no cortan la suma, y un mes anterior registrado fuera de orden
+ * solo recalcula los prefijos de su planta. El libro se carga desde la tabla generacion en el primer uso y
+ * puede reconstruirse en cualquier momento a partir de los valores mensuales guardados.
+ */
+@Component
+public class LibroAcumuladosGeneracion {
+
+    @Autowired
+    private GeneratorRepository generatorRepository;
+
+    private final Map<String, LibroPlanta> libros = new ConcurrentHashMap<>();
+
+    private volatile boolean cargado = false;
+
+    /**
+     * Obtiene los acumulados de una planta hasta un mes, incluido.
+     *
+     * @param idPlanta ID de la planta.
+     * @param periodo Año y mes hasta el cual se acumula.
+     * @return AcumuladoGeneracionDTO con los totales; en cero si la planta no tiene registros hasta ese mes.
+     */
+    public AcumuladoGeneracionDTO findAcumuladoHasta(String idPlanta, YearMonth periodo) {
+        cargarSiEsNecesario();
+        LibroPlanta libro = libros.get(idPlanta);
+        double[] totales = libro != null ? libro.acumuladoHasta(periodo) : new double[3];
+        return AcumuladoGeneracionDTO.builder()
+                .idPlanta(idPlanta)
+                .anio(periodo.getYear())
+                .mes(periodo.getMonthValue())
+                .generacionAcumulado(totales[0])
+                .ahorroAcumulado(totales[1])
+                .ahorroCodosAcumulado(totales[2])
+                .build();
+    }
+
+    /**
+     * Indica si una planta tiene registrado algún mes posterior al indicado.
+     *
+     * @param idPlanta ID de la planta.
+     * @param periodo Año y mes de referencia.
+     * @return true si existe un registro de la planta después de ese mes.
+     */
+    public boolean tieneMesesPosteriores(String idPlanta, YearMonth periodo) {
+        cargarSiEsNecesario();
+        LibroPlanta libro = libros.get(idPlanta);
+        return libro != null && libro.ultimoMes() != null && libro.ultimoMes().isAfter(periodo);
+    }
+
+    /**
+     * Registra o reemplaza los valores mensuales de un registro de generación y recalcula los prefijos de su planta.
+     *
+     * @param generator Registro de generación con idPlanta, anio, mes y los valores actuales del mes.
+     */
+    public void registrar(Generator generator) {
+        cargarSiEsNecesario();
+        libros.computeIfAbsent(generator.getIdPlanta(), k -> new LibroPlanta()).registrar(generator);
+    }
+
+    /**
+     * Descarta el contenido del libro para que se vuelva a cargar desde la base de datos en el siguiente uso.
+     * Se utiliza cuando una escritura en la tabla generacion falla después de haber registrado sus valores.
+     */
+    public synchronized void invalidar() {
+        cargado = false;
+        libros.clear();
+    }
+
+    /**
+     * Reconstruye el libro completo a partir de los registros de generación indicados.
+     *
+     * @param registros Registros de la tabla generacion; si una planta tiene varios registros en el mismo mes prevalece el último.
+     */
+    public synchronized void reconstruir(Iterable<Generator> registros) {
+        Map<String, LibroPlanta> nuevos = new ConcurrentHashMap<>();
+        for (Generator registro : registros) {
+            if (registro.getIdPlanta() != null && registro.getAnio() != null && registro.getMes() != null) {
+                nuevos.computeIfAbsent(registro.getIdPlanta(), k -> new LibroPlanta()).agregar(registro);
+            }
+        }
+        nuevos.values().forEach(LibroPlanta::recalcular);
+        libros.clear();
+        libros.putAll(nuevos);
+        cargado = true;
+    }
+
+    private void cargarSiEsNecesario() {
+        if (!cargado) {
+            synchronized (this) {
+                if (!cargado) {
+                    reconstruir(generatorRepository.findAllByOrderByIdGeneracionAsc());
+                }
+            }
+        }
+    }
+
+    /**
+     * Valores mensuales y prefijos de una planta. Los prefijos se publican como un arreglo inmutable
+     * para que las lecturas no necesiten sincronización.
+     */
+    private static final class LibroPlanta {
+
+        private final TreeMap<YearMonth, double[]> mensual = new TreeMap<>();
+        private volatile Prefijos prefijos = new Prefijos(null, new double[0][]);
+
+        synchronized void registrar(Generator generator) {
+            agregar(generator);
+            recalcular();
+        }
+
+        void agregar(Generator generator) {
+            mensual.put(YearMonth.of(generator.getAnio(), generator.getMes()), new double[]{
+                    valor(generator.getGeneracionActual()),
+                    valor(generator.getAhorroActual()),
+                    valor(generator.getAhorroCodosActual())});
+        }
+
+        void recalcular() {
+            if (mensual.isEmpty()) {
+                prefijos = new Prefijos(null, new double[0][]);
+                return;
+            }
+            YearMonth primerMes = mensual.firstKey();
+            int meses = (int) primerMes.until(mensual.lastKey(), ChronoUnit.MONTHS) + 1;
+            double[][] sumas = new double[meses][];
+            double[] acumulado = new double[3];
+            for (int i = 0; i < meses; i++) {
+                double[] valores = mensual.get(primerMes.plusMonths(i));
+                if (valores != null) {
+                    acumulado = new double[]{acumulado[0] + valores[0], acumulado[1] + valores[1], acumulado[2] + valores[2]};
+                }
+                sumas[i] = acumulado;
+            }
+            prefijos = new Prefijos(primerMes, sumas);
+        }
+
+        YearMonth ultimoMes() {
+            Prefijos actuales = prefijos;
+            return actuales.primerMes != null ? actuales.primerMes.plusMonths(actuales.sumas.length - 1L) : null;
+        }
+
+        double[] acumuladoHasta(YearMonth periodo) {
+            Prefijos actuales = prefijos;
+            if (actuales.primerMes == null || periodo.isBefore(actuales.primerMes)) {
+                return new double[3];
+            }
+            long indice = actuales.primerMes.until(periodo, ChronoUnit.MONTHS);
+            double[] totales = actuales.sumas[(int) Math.min(indice, actuales.sumas.length - 1)];
+            return totales.clone();
+        }
+
+        private static double valor(Double valor) {
+            return valor != null ? valor : 0.0;
+        }
+    }
+
+    private record Prefijos(YearMonth primerMes, double[][] sumas) {
+    }
+}
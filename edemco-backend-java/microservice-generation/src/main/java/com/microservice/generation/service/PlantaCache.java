@@ -0,0 +1,155 @@
+package com.microservice.generation.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microservice.generation.client.IntegracionSiesaClient;
+import com.microservice.generation.controller.sto.PlantaReferenciaDto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Caché local y acotada de los datos de referencia de las plantas (nombre, operador, valor unidad y
+ * facturación especial) obtenidos de msvc-integracion. Las entradas vencen según su tiempo de vida y
+ * msvc-integracion las invalida explícitamente cuando se modifica una planta. Los aciertos y fallos se
+ * publican en las métricas cache.gets de las cachés "plantas" y "plantas.nombres".
+ */
+@Component
+public class PlantaCache {
+
+    private final IntegracionSiesaClient integracionSiesaClient;
+    private final Cache<String, PlantaReferenciaDto> plantasPorId;
+    private final Cache<String, String> idsPorNombre;
+
+    @Autowired
+    public PlantaCache(IntegracionSiesaClient integracionSiesaClient, MeterRegistry meterRegistry,
+                       @Value("${generacion.cache.plantas.ttl-minutos:60}") long ttlMinutos,
+                       @Value("${generacion.cache.plantas.tamano-maximo:1000}") long tamanoMaximo) {
+        this.integracionSiesaClient = integracionSiesaClient;
+        this.plantasPorId = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutos))
+                .recordStats()
+                .build();
+        this.idsPorNombre = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutos))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, plantasPorId, "plantas");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsPorNombre, "plantas.nombres");
+    }
+
+    /**
+     * Obtiene los datos de referencia de una planta a partir de su ID.
+     *
+     * @param idPlanta ID de la planta.
+     * @return PlantaReferenciaDto de la planta, o null si no existe.
+     */
+    public PlantaReferenciaDto findById(String idPlanta) {
+        return findByIds(List.of(idPlanta)).get(idPlanta);
+    }
+
+    /**
+     * Obtiene los datos de referencia de varias plantas a partir de sus IDs; las que no están en caché
+     * se consultan juntas en una sola llamada.
+     *
+     * @param idsPlanta IDs de las plantas.
+     * @return Mapa de PlantaReferenciaDto por ID de planta; las plantas inexistentes no aparecen.
+     */
+    public Map<String, PlantaReferenciaDto> findByIds(Collection<String> idsPlanta) {
+        Map<String, PlantaReferenciaDto> plantas = new HashMap<>();
+        Set<String> faltantes = new HashSet<>();
+        for (String idPlanta : idsPlanta) {
+            PlantaReferenciaDto planta = idPlanta != null ? plantasPorId.getIfPresent(idPlanta) : null;
+            if (planta != null) {
+                plantas.put(idPlanta, planta);
+            } else if (idPlanta != null) {
+                faltantes.add(idPlanta);
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            for (PlantaReferenciaDto planta : integracionSiesaClient.findPlantasReferenciaByIds(new ArrayList<>(faltantes))) {
+                guardar(planta);
+                plantas.put(planta.getIdPlanta(), planta);
+            }
+        }
+        return plantas;
+    }
+
+    /**
+     * Obtiene los datos de referencia de una planta a partir de su nombre.
+     *
+     * @param nombrePlanta Nombre de la planta.
+     * @return PlantaReferenciaDto de la planta, o null si no existe.
+     */
+    public PlantaReferenciaDto findByNombre(String nombrePlanta) {
+        return findByNombres(List.of(nombrePlanta)).get(nombrePlanta);
+    }
+
+    /**
+     * Obtiene los datos de referencia de varias plantas a partir de sus nombres; las que no están en caché
+     * se consultan juntas en una sola llamada.
+     *
+     * @param nombresPlanta Nombres de las plantas.
+     * @return Mapa de PlantaReferenciaDto por nombre de planta; las plantas inexistentes no aparecen.
+     */
+    public Map<String, PlantaReferenciaDto> findByNombres(Collection<String> nombresPlanta) {
+        Map<String, PlantaReferenciaDto> plantas = new HashMap<>();
+        Set<String> faltantes = new HashSet<>();
+        for (String nombrePlanta : nombresPlanta) {
+            String idPlanta = nombrePlanta != null ? idsPorNombre.getIfPresent(nombrePlanta) : null;
+            PlantaReferenciaDto planta = idPlanta != null ? plantasPorId.getIfPresent(idPlanta) : null;
+            if (planta != null) {
+                plantas.put(nombrePlanta, planta);
+            } else if (nombrePlanta != null) {
+                faltantes.add(nombrePlanta);
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            for (PlantaReferenciaDto planta : integracionSiesaClient.findPlantasReferenciaByNombres(new ArrayList<>(faltantes))) {
+                guardar(planta);
+                plantas.put(planta.getNombrePlanta(), planta);
+            }
+        }
+        return plantas;
+    }
+
+    /**
+     * Descarta de la caché las plantas indicadas para que se vuelvan a consultar en el siguiente uso.
+     *
+     * @param idsPlanta IDs de las plantas modificadas; si está vacío se descarta toda la caché.
+     */
+    public void invalidar(Collection<String> idsPlanta) {
+        if (idsPlanta == null || idsPlanta.isEmpty()) {
+            plantasPorId.invalidateAll();
+            idsPorNombre.invalidateAll();
+            return;
+        }
+        plantasPorId.invalidateAll(idsPlanta);
+        idsPorNombre.asMap().values().removeIf(idsPlanta::contains);
+    }
+
+    private void guardar(PlantaReferenciaDto planta) {
+        if (planta.getIdPlanta() == null) {
+            return;
+        }
+        plantasPorId.put(planta.getIdPlanta(), planta);
+        if (planta.getNombrePlanta() != null) {
+            idsPorNombre.put(planta.getNombrePlanta(), planta.getIdPlanta());
+        }
+    }
+}
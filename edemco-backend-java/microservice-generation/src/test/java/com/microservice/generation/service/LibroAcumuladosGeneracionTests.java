@@ -0,0 +1,101 @@
+package com.microservice.generation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.microservice.generation.dto.AcumuladoGeneracionDTO;
+import com.microservice.generation.entities.Generator;
+
+class LibroAcumuladosGeneracionTests {
+
+	private static final String PLANTA = "P01";
+
+	@Test
+	void acumulaSobreMesesSinRegistro() {
+		LibroAcumuladosGeneracion libro = new LibroAcumuladosGeneracion();
+		libro.reconstruir(List.of(
+				generacion(PLANTA, 2024, 1, 100, 10, 5),
+				generacion(PLANTA, 2024, 4, 50, 4, 2)));
+
+		assertAcumulado(libro.findAcumuladoHasta(PLANTA, YearMonth.of(2024, 1)), 100, 10, 5);
+		assertAcumulado(libro.findAcumuladoHasta(PLANTA, YearMonth.of(2024, 3)), 100, 10, 5);
+		assertAcumulado(libro.findAcumuladoHasta(PLANTA, YearMonth.of(2024, 4)), 150, 14, 7);
+		assertAcumulado(libro.findAcumuladoHasta(PLANTA, YearMonth.of(2025, 1)), 150, 14, 7);
+	}
+
+	@Test
+	void registraUnMesAnteriorALosExistentes() {
+		LibroAcumuladosGeneracion libro = new LibroAcumuladosGeneracion();
+		libro.reconstruir(List.of(
+				generacion(PLANTA, 2024, 3, 30, 3, 1),
+				generacion(PLANTA, 2024, 4, 40, 4, 2)));
+
+		libro.registrar(generacion(PLANTA, 2023, 12, 20, 2, 1));
+
+		assertAcumulado(libro.findAcumuladoHasta(PLANTA, YearMonth.of(2023, 12)), 20, 2, 1);
+		assertAcumulado(libro.findAcumuladoHasta(PLANTA, YearMonth.of(2024, 2)), 20, 2, 1);
+		assertAcumulado(libro.findAcumuladoHasta(PLANTA, YearMonth.of(2024, 3)), 50, 5, 2);
+		assertAcumulado(libro.findAcumuladoHasta(PLANTA, YearMonth.of(2024, 4)), 90, 9, 4);
+		assertTrue(libro.tieneMesesPosteriores(PLANTA, YearMonth.of(2023, 12)));
+		assertFalse(libro.tieneMesesPosteriores(PLANTA, YearMonth.of(2024, 4)));
+	}
+
+	@Test
+	void acumuladoAntesDelPrimerMesEsCero() {
+		LibroAcumuladosGeneracion libro = new LibroAcumuladosGeneracion();
+		libro.reconstruir(List.of(generacion(PLANTA, 2024, 5, 100, 10, 5)));
+
+		assertAcumulado(libro.findAcumuladoHasta(PLANTA, YearMonth.of(2024, 4)), 0, 0, 0);
+		assertAcumulado(libro.findAcumuladoHasta("SIN_REGISTROS", YearMonth.of(2024, 5)), 0, 0, 0);
+		assertFalse(libro.tieneMesesPosteriores("SIN_REGISTROS", YearMonth.of(2024, 5)));
+	}
+
+	@Test
+	void reconstruirCoincideConRegistrosIncrementales() {
+		List<Generator> registros = List.of(
+				generacion(PLANTA, 2024, 2, 20, 2, 1),
+				generacion(PLANTA, 2023, 11, 10, 1, 0.5),
+				generacion("P02", 2024, 1, 70, 7, 3),
+				generacion(PLANTA, 2024, 6, 60, 6, 3),
+				generacion(PLANTA, 2024, 2, 25, 2.5, 1.5));
+
+		LibroAcumuladosGeneracion reconstruido = new LibroAcumuladosGeneracion();
+		reconstruido.reconstruir(registros);
+		LibroAcumuladosGeneracion incremental = new LibroAcumuladosGeneracion();
+		incremental.reconstruir(List.of());
+		registros.forEach(incremental::registrar);
+
+		for (String idPlanta : List.of(PLANTA, "P02")) {
+			for (YearMonth periodo = YearMonth.of(2023, 10); !periodo.isAfter(YearMonth.of(2024, 8)); periodo = periodo.plusMonths(1)) {
+				AcumuladoGeneracionDTO esperado = reconstruido.findAcumuladoHasta(idPlanta, periodo);
+				assertAcumulado(incremental.findAcumuladoHasta(idPlanta, periodo), esperado.getGeneracionAcumulado(),
+						esperado.getAhorroAcumulado(), esperado.getAhorroCodosAcumulado());
+			}
+		}
+		assertAcumulado(incremental.findAcumuladoHasta(PLANTA, YearMonth.of(2024, 6)), 95, 9.5, 5);
+	}
+
+	private static Generator generacion(String idPlanta, int anio, int mes, double generacion, double ahorro, double ahorroCodos) {
+		Generator generator = new Generator();
+		generator.setIdPlanta(idPlanta);
+		generator.setAnio(anio);
+		generator.setMes(mes);
+		generator.setGeneracionActual(generacion);
+		generator.setAhorroActual(ahorro);
+		generator.setAhorroCodosActual(ahorroCodos);
+		return generator;
+	}
+
+	private static void assertAcumulado(AcumuladoGeneracionDTO acumulado, double generacion, double ahorro, double ahorroCodos) {
+		assertEquals(generacion, acumulado.getGeneracionAcumulado(), 1e-9);
+		assertEquals(ahorro, acumulado.getAhorroAcumulado(), 1e-9);
+		assertEquals(ahorroCodos, acumulado.getAhorroCodosAcumulado(), 1e-9);
+	}
+
+}